@@ -0,0 +1,35 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.service.ChangeFeed;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST Controller for the Server-Sent Events change stream
+ */
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+public class ChangeStreamController {
+    
+    private final ChangeFeed changeFeed;
+    
+    /**
+     * Stream "change" events ({type, id, version, op}) for recipes, ingredients
+     * and the user's pantry, and "expiring" events ({ids}) when pantry items
+     * start expiring soon. Reconnecting clients send Last-Event-ID to resume;
+     * a "reset" event means changes were missed and lists should be reloaded.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return changeFeed.subscribe(userId, lastEventId);
+    }
+}
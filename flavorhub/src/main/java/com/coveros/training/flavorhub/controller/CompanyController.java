@@ -20,12 +20,15 @@ public class CompanyController {
     private final CompanyService companyService;
     
     /**
-     * Get all companies
+     * Get a page of companies; pass the X-Next-Cursor header back as cursor for the next page
      */
     @GetMapping
-    public ResponseEntity<List<Company>> getAllCompanies() {
-        List<Company> companies = companyService.getAllCompanies();
-        return ResponseEntity.ok(companies);
+    public ResponseEntity<List<Company>> getAllCompanies(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Company> companies = companyService.getCompaniesAfter(KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(companies, pageSize, Company::getId);
     }
     
     /**
@@ -0,0 +1,20 @@
+package com.coveros.training.flavorhub.controller;
+
+/**
+ * How controllers identify the user a request acts for.
+ *
+ * There is no authentication yet, so the user id comes from the X-User-Id
+ * request header. A request without the header, or with one that is not a
+ * positive number, is rejected with 400 rather than acting for some default
+ * user. The header is trusted as sent: any caller can act for any user by
+ * naming them, and the per-user scoping in the services only keeps honest
+ * clients apart. Once authentication is added this header should be
+ * replaced by the principal.
+ */
+public final class CurrentUser {
+
+    public static final String HEADER = "X-User-Id";
+
+    private CurrentUser() {
+    }
+}
@@ -20,12 +20,15 @@ public class EmployeeController {
     private final EmployeeService employeeService;
     
     /**
-     * Get all employees
+     * Get a page of employees; pass the X-Next-Cursor header back as cursor for the next page
      */
     @GetMapping
-    public ResponseEntity<List<Employee>> getAllEmployees() {
-        List<Employee> employees = employeeService.getAllEmployees();
-        return ResponseEntity.ok(employees);
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Employee> employees = employeeService.getEmployeesAfter(KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(employees, pageSize, Employee::getId);
     }
     
     /**
@@ -1,14 +1,22 @@
 package com.coveros.training.flavorhub.controller;
 
+import com.coveros.training.flavorhub.service.RecipeCardRenderer;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 /**
  * Controller for serving the main web pages
  */
 @Controller
+@RequiredArgsConstructor
 public class HomeController {
     
+    private static final int RECIPES_PAGE_SIZE = 24;
+    
+    private final RecipeCardRenderer recipeCardRenderer;
+    
     @GetMapping("/")
     public String home() {
         return "index";
@@ -33,12 +41,15 @@ public class HomeController {
     }
     
     /**
-     * Display the recipes browsing page
-     * TODO: Add model attributes for pre-populated data
+     * Display the recipes browsing page with the first page of recipes
+     * rendered server-side from cached recipe cards
      * @return the recipes view template
      */
     @GetMapping("/recipes")
-    public String recipes() {
+    public String recipes(Model model) {
+        RecipeCardRenderer.RenderedPage page = recipeCardRenderer.renderPage(0L, RECIPES_PAGE_SIZE);
+        model.addAttribute("recipeCards", page.html());
+        model.addAttribute("nextCursor", page.nextAfterId() == null ? null : KeysetCursor.encode(page.nextAfterId()));
         return "recipes";
     }
 }
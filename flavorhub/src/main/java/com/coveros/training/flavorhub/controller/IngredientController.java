@@ -1,14 +1,21 @@
 package com.coveros.training.flavorhub.controller;
 
+import com.coveros.training.flavorhub.dto.IngredientSuggestion;
 import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.service.CollectionVersions;
+import com.coveros.training.flavorhub.service.ExportService;
 import com.coveros.training.flavorhub.service.IngredientService;
+import com.coveros.training.flavorhub.service.IngredientSuggestIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * REST Controller for managing ingredients
@@ -19,14 +26,42 @@ import java.util.List;
 public class IngredientController {
     
     private final IngredientService ingredientService;
+    private final ExportService exportService;
+    private final CollectionVersions collectionVersions;
     
+    /**
+     * Get a page of ingredients; pass the X-Next-Cursor header back as cursor for the next page
+     */
     @GetMapping
-    public ResponseEntity<List<Ingredient>> getAllIngredients() {
-        return ResponseEntity.ok(ingredientService.getAllIngredients());
+    public ResponseEntity<List<Ingredient>> getAllIngredients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        if (request.checkNotModified(collectionVersions.ingredientsTag())) {
+            return null; // 304 Not Modified
+        }
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Ingredient> rows = ingredientService.getIngredientsAfter(KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(rows, pageSize, Ingredient::getId);
+    }
+    
+    /**
+     * Stream all ingredients as newline-delimited JSON
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportIngredients() {
+        return ResponseEntity.ok(exportService::exportIngredients);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Ingredient> getIngredientById(@PathVariable Long id) {
+    public ResponseEntity<Ingredient> getIngredientById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = ingredientService.getIngredientVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(CollectionVersions.entityTag("ingredient", id, version.get()))) {
+            return null; // 304 Not Modified
+        }
         return ingredientService.getIngredientById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -37,6 +72,17 @@ public class IngredientController {
         return ResponseEntity.ok(ingredientService.searchIngredients(query));
     }
     
+    /**
+     * Typeahead: ingredients whose name, or any word of it, starts with the prefix
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<IngredientSuggestion>> suggestIngredients(
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "" + IngredientSuggestIndex.MAX_SUGGESTIONS) int limit) {
+        int max = Math.max(1, Math.min(limit, IngredientSuggestIndex.MAX_SUGGESTIONS));
+        return ResponseEntity.ok(ingredientService.suggestIngredients(prefix, max));
+    }
+    
     @GetMapping("/category/{category}")
     public ResponseEntity<List<Ingredient>> getIngredientsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(ingredientService.getIngredientsByCategory(category));
@@ -55,6 +101,7 @@ public class IngredientController {
         return ingredientService.getIngredientById(id)
                 .map(existing -> {
                     ingredient.setId(id);
+                    ingredient.setVersion(existing.getVersion());
                     return ResponseEntity.ok(ingredientService.saveIngredient(ingredient));
                 })
                 .orElse(ResponseEntity.notFound().build());
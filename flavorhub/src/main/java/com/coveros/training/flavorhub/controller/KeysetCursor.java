@@ -0,0 +1,87 @@
+package com.coveros.training.flavorhub.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque cursor shared by all list endpoints for keyset (seek) pagination.
+ *
+ * Every list is ordered by primary key, and the cursor encodes the last id
+ * of the previous page, so a page is always "WHERE id > ? ORDER BY id LIMIT ?"
+ * and costs the same no matter how deep it is. Services fetch one row more
+ * than the page size so the controller can tell whether another page exists;
+ * the cursor for it is returned in the X-Next-Cursor response header.
+ */
+public final class KeysetCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Decode a cursor into the last id already returned, or 0 for the first page
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(value);
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Clamp a requested page size to [1, MAX_PAGE_SIZE]
+     */
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Build a page response from up to size + 1 rows fetched in id order
+     */
+    public static <T> ResponseEntity<List<T>> page(List<T> rows, int size, Function<T, Long> idOf) {
+        String next = next(rows, size, idOf);
+        if (next == null) {
+            return ResponseEntity.ok(rows);
+        }
+        return ResponseEntity.ok()
+                .header(NEXT_CURSOR_HEADER, next)
+                .body(rows.subList(0, size));
+    }
+
+    /**
+     * Cursor for the page after the first size of up to size + 1 rows
+     * fetched in id order, or null if there is no such page
+     */
+    public static <T> String next(List<T> rows, int size, Function<T, Long> idOf) {
+        return rows.size() <= size ? null : encode(idOf.apply(rows.get(size - 1)));
+    }
+}
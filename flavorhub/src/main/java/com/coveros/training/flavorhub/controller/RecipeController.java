@@ -1,14 +1,34 @@
 package com.coveros.training.flavorhub.controller;
 
+import com.coveros.training.flavorhub.dto.BulkImportResult;
+import com.coveros.training.flavorhub.dto.FacetedSearchResult;
+import com.coveros.training.flavorhub.dto.FullTextHit;
+import com.coveros.training.flavorhub.dto.MealPlan;
+import com.coveros.training.flavorhub.dto.RecipeRecommendation;
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.dto.SimilarRecipe;
 import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.service.CollectionVersions;
+import com.coveros.training.flavorhub.service.ExportService;
+import com.coveros.training.flavorhub.service.InsufficientPantryException;
+import com.coveros.training.flavorhub.service.MealPlanner;
+import com.coveros.training.flavorhub.service.RecipeFacetIndex;
 import com.coveros.training.flavorhub.service.RecipeService;
+import com.coveros.training.flavorhub.service.UserPantryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * REST Controller for managing recipes
@@ -18,15 +38,66 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RecipeController {
     
+    private static final int MAX_BULK_IMPORT = 10_000;
+    
+    private static final int MAX_BULK_DELETE = 500;
+    
     private final RecipeService recipeService;
+    private final ExportService exportService;
+    private final MealPlanner mealPlanner;
+    private final CollectionVersions collectionVersions;
+    private final UserPantryService userPantryService;
     
+    /**
+     * Get a page of recipes; pass the X-Next-Cursor header back as cursor for the next page
+     */
     @GetMapping
-    public ResponseEntity<List<Recipe>> getAllRecipes() {
-        return ResponseEntity.ok(recipeService.getAllRecipes());
+    public ResponseEntity<List<Recipe>> getAllRecipes(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        if (request.checkNotModified(collectionVersions.recipesTag())) {
+            return null; // 304 Not Modified
+        }
+        int pageSize = KeysetCursor.pageSize(size);
+        List<Recipe> rows = recipeService.getRecipesAfter(KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(rows, pageSize, Recipe::getId);
+    }
+    
+    /**
+     * List recipes without their ingredients and instructions, for browsing
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<List<RecipeSummary>> getRecipeSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        int pageSize = KeysetCursor.pageSize(size);
+        List<RecipeSummary> rows = recipeService.getRecipeSummariesAfter(KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(rows, pageSize, RecipeSummary::getId);
     }
     
+    /**
+     * Stream the whole recipe catalog as newline-delimited JSON
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRecipes() {
+        return ResponseEntity.ok(exportService::exportRecipes);
+    }
+    
+    /**
+     * Get a recipe by ID. The ETag is derived from the id and version, which are
+     * checked before the recipe is loaded, so an unchanged recipe costs one
+     * indexed lookup and returns 304 Not Modified.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id) {
+    public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id, WebRequest request) {
+        Optional<Long> version = recipeService.getRecipeVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(CollectionVersions.entityTag("recipe", id, version.get()))) {
+            return null; // 304 Not Modified
+        }
         return recipeService.getRecipeById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -41,23 +112,131 @@ public class RecipeController {
         return ResponseEntity.ok(recipeService.searchRecipes(query));
     }
     
+    /**
+     * Search names, descriptions, instructions and ingredients with BM25
+     * ranking; highlights are HTML with matching words wrapped in em tags
+     */
+    @GetMapping(value = "/search", params = "mode=fulltext")
+    public ResponseEntity<List<FullTextHit>> fullTextSearch(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        int max = Math.max(1, Math.min(limit, KeysetCursor.MAX_PAGE_SIZE));
+        return ResponseEntity.ok(recipeService.fullTextSearch(query, max));
+    }
+    
+    /**
+     * Get recipes that can be made within maxMinutes (prep + cook), quickest first,
+     * optionally filtered by cuisine and difficulty
+     */
+    @GetMapping("/quick")
+    public ResponseEntity<List<Recipe>> getQuickRecipes(
+            @RequestParam int maxMinutes,
+            @RequestParam(required = false) String cuisine,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(recipeService.getQuickRecipes(
+                maxMinutes, cuisine, difficulty, KeysetCursor.pageSize(size)));
+    }
+    
     /**
      * Get recipes by difficulty level
-     * NOTE: Workshop participants will implement this endpoint using Copilot
      */
-    // TODO: Implement GET /api/recipes/difficulty/{level} endpoint
+    @GetMapping("/difficulty/{level}")
+    public ResponseEntity<List<Recipe>> getRecipesByDifficulty(@PathVariable String level) {
+        return ResponseEntity.ok(recipeService.getRecipesByDifficulty(level));
+    }
     
     /**
      * Get recipes by cuisine type
-     * NOTE: Workshop participants will implement this endpoint using Copilot
      */
-    // TODO: Implement GET /api/recipes/cuisine/{type} endpoint
+    @GetMapping("/cuisine/{type}")
+    public ResponseEntity<List<Recipe>> getRecipesByCuisine(@PathVariable String type) {
+        return ResponseEntity.ok(recipeService.getRecipesByCuisine(type));
+    }
+    
+    @GetMapping("/ingredient/{ingredientId}")
+    public ResponseEntity<List<Recipe>> getRecipesByIngredient(@PathVariable Long ingredientId) {
+        return ResponseEntity.ok(recipeService.getRecipesByIngredient(ingredientId));
+    }
     
     /**
-     * Recommend recipes based on available pantry ingredients
-     * NOTE: This is an advanced endpoint to be implemented during the workshop
+     * Filter recipes by difficulty, cuisine, time bucket (0-15, 16-30, 31-60, 60+)
+     * and ingredient. Repeat a parameter to select several values of it.
+     * The response includes counts for every facet value.
      */
-    // TODO: Implement GET /api/recipes/recommendations endpoint
+    @GetMapping("/facets")
+    public ResponseEntity<FacetedSearchResult> facetedSearch(
+            @RequestParam(required = false) List<String> difficulty,
+            @RequestParam(required = false) List<String> cuisine,
+            @RequestParam(required = false) List<String> time,
+            @RequestParam(required = false) List<String> ingredient,
+            @RequestParam(required = false) Integer size) {
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put(RecipeFacetIndex.DIFFICULTY, difficulty);
+        filters.put(RecipeFacetIndex.CUISINE, cuisine);
+        filters.put(RecipeFacetIndex.TIME, time);
+        filters.put(RecipeFacetIndex.INGREDIENT, ingredient);
+        return ResponseEntity.ok(recipeService.facetedSearch(filters, KeysetCursor.pageSize(size)));
+    }
+    
+    /**
+     * Recommend recipes based on available pantry ingredients, ranked by the
+     * fraction of each recipe's ingredients already in the pantry
+     */
+    @GetMapping("/recommendations")
+    public ResponseEntity<List<RecipeRecommendation>> getRecommendations(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(recipeService.recommendRecipes(userId, Math.max(1, limit)));
+    }
+    
+    /**
+     * Plan a set of recipes that makes the most of the pantry, returning the
+     * best plan found within timeoutMs
+     */
+    @GetMapping("/meal-plan")
+    public ResponseEntity<MealPlan> planMeals(
+            @RequestParam(defaultValue = "3") int size,
+            @RequestParam(required = false) String cuisine,
+            @RequestParam(required = false) Integer maxMinutes,
+            @RequestParam(defaultValue = "" + MealPlanner.DEFAULT_DEADLINE_MILLIS) long timeoutMs,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        int planSize = Math.max(1, Math.min(size, MealPlanner.MAX_PLAN_SIZE));
+        long deadline = Math.max(1, Math.min(timeoutMs, MealPlanner.MAX_DEADLINE_MILLIS));
+        return ResponseEntity.ok(mealPlanner.plan(userId, planSize, cuisine, maxMinutes, deadline));
+    }
+    
+    /**
+     * Get the recipes with the most similar ingredient lists
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<SimilarRecipe>> getSimilarRecipes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        return recipeService.findSimilarRecipes(id, Math.max(1, limit))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Cook a recipe: deduct all of its ingredients from the current user's
+     * pantry at once. Responds 409 with what is missing, leaving the pantry
+     * unchanged, if anything is short, and 422 if the recipe measures one
+     * ingredient in units that do not convert to each other.
+     */
+    @PostMapping("/{id}/cook")
+    public ResponseEntity<?> cookRecipe(
+            @PathVariable Long id,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        try {
+            return userPantryService.cookRecipe(userId, id)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (InsufficientPantryException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(userPantryService.checkSufficiency(userId, List.of(id)).get(0));
+        }
+    }
     
     @PostMapping
     public ResponseEntity<Recipe> createRecipe(@Valid @RequestBody Recipe recipe) {
@@ -65,6 +244,16 @@ public class RecipeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
     
+    /**
+     * Import many recipes in a single request using batched inserts
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkImportResult> importRecipes(
+            @RequestBody @Size(max = MAX_BULK_IMPORT) List<@Valid Recipe> recipes) {
+        BulkImportResult result = recipeService.importRecipes(recipes);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<Recipe> updateRecipe(
             @PathVariable Long id, 
@@ -72,6 +261,7 @@ public class RecipeController {
         return recipeService.getRecipeById(id)
                 .map(existing -> {
                     recipe.setId(id);
+                    recipe.setVersion(existing.getVersion());
                     return ResponseEntity.ok(recipeService.saveRecipe(recipe));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -82,4 +272,34 @@ public class RecipeController {
         recipeService.deleteRecipe(id);
         return ResponseEntity.noContent().build();
     }
+    
+    /**
+     * Delete many recipes at once, either by id or by every recipe matching
+     * the given cuisine, difficulty and maximum total time. At least one
+     * selector is required, so a bare DELETE cannot empty the catalog.
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Integer>> deleteRecipes(
+            @RequestParam(required = false) @Size(max = MAX_BULK_DELETE) List<Long> ids,
+            @RequestParam(required = false) String cuisine,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) Integer maxMinutes) {
+        int deleted;
+        if (ids != null) {
+            deleted = recipeService.deleteRecipes(ids);
+        } else if (cuisine != null || difficulty != null || maxMinutes != null) {
+            deleted = recipeService.deleteRecipesMatching(cuisine, difficulty, maxMinutes);
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of("deleted", deleted));
+    }
+    
+    /**
+     * Remove ingredient and instruction rows that no longer belong to a recipe
+     */
+    @PostMapping("/purge-orphans")
+    public ResponseEntity<Map<String, Integer>> purgeOrphanedRows() {
+        return ResponseEntity.ok(recipeService.purgeOrphanedRecipeRows());
+    }
 }
@@ -0,0 +1,53 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.dto.SyncResult;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.service.SyncService;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST Controller for delta sync of the pantry and catalog
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+    
+    private final SyncService syncService;
+    
+    /**
+     * Get the pantry items, ingredients and recipes written since the token
+     * from the previous sync, plus the ids deleted since then, up to size of
+     * each; "more" says whether to sync again from the returned token.
+     * Without a token, or with one that is too old, returns a full snapshot
+     * instead, with the first size ingredients and recipes and the cursors to
+     * page through the rest.
+     */
+    @GetMapping
+    public ResponseEntity<SyncResult> sync(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        int pageSize = KeysetCursor.pageSize(size);
+        SyncResult result = syncService.sync(userId, since, pageSize);
+        if (result.isSnapshot()) {
+            List<Ingredient> ingredients = result.getIngredients();
+            result.setIngredientsCursor(KeysetCursor.next(ingredients, pageSize, Ingredient::getId));
+            result.setIngredients(ingredients.subList(0, Math.min(pageSize, ingredients.size())));
+            List<Recipe> recipes = result.getRecipes();
+            result.setRecipesCursor(KeysetCursor.next(recipes, pageSize, Recipe::getId));
+            result.setRecipes(recipes.subList(0, Math.min(pageSize, recipes.size())));
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,14 +1,28 @@
 package com.coveros.training.flavorhub.controller;
 
+import com.coveros.training.flavorhub.dto.PantryBatchResult;
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.dto.RecipeSufficiency;
+import com.coveros.training.flavorhub.dto.ShoppingListItem;
 import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.service.CollectionVersions;
+import com.coveros.training.flavorhub.service.ExportService;
 import com.coveros.training.flavorhub.service.UserPantryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * REST Controller for managing user pantry
@@ -19,17 +33,71 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserPantryController {
     
+    private static final int MAX_BATCH_SIZE = 500;
+    
+    private static final int MAX_RECIPE_IDS = 500;
+    
     private final UserPantryService userPantryService;
+    private final ExportService exportService;
+    private final CollectionVersions collectionVersions;
     
     /**
-     * Get all pantry items for a specific user
-     * For simplicity, we're using a hardcoded userId (1)
-     * In a real application, this would come from authentication
+     * Get a page of pantry items for the current user (see CurrentUser)
      */
     @GetMapping
-    public ResponseEntity<List<UserPantry>> getUserPantry() {
-        Long userId = 1L; // Hardcoded for workshop purposes
-        return ResponseEntity.ok(userPantryService.getUserPantry(userId));
+    public ResponseEntity<List<UserPantry>> getUserPantry(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId,
+            WebRequest request) {
+        if (request.checkNotModified(collectionVersions.pantryTag(userId))) {
+            return null; // 304 Not Modified
+        }
+        int pageSize = KeysetCursor.pageSize(size);
+        List<UserPantry> rows = userPantryService.getUserPantryAfter(userId, KeysetCursor.decode(cursor), pageSize + 1);
+        return KeysetCursor.page(rows, pageSize, UserPantry::getId);
+    }
+    
+    /**
+     * Stream all of the user's pantry items as newline-delimited JSON
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPantry(
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(out -> exportService.exportPantry(userId, out));
+    }
+    
+    /**
+     * Check which recipes the pantry has enough of every ingredient for;
+     * all recipes are checked when no ids are given
+     */
+    @GetMapping("/sufficiency")
+    public ResponseEntity<List<RecipeSufficiency>> checkSufficiency(
+            @RequestParam(required = false) @Size(max = MAX_RECIPE_IDS) List<Long> recipeIds,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(userPantryService.checkSufficiency(userId, recipeIds));
+    }
+    
+    /**
+     * Get the user's items that expire within the given number of days
+     * (default: the notification notice period), soonest first
+     */
+    @GetMapping("/expiring")
+    public ResponseEntity<List<UserPantry>> getExpiringItems(
+            @RequestParam(required = false) @PositiveOrZero Integer days,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(userPantryService.getExpiringItems(userId, days));
+    }
+    
+    /**
+     * Build a consolidated shopping list for a meal plan: everything the
+     * recipes need minus what is already in the pantry
+     */
+    @PostMapping("/shopping-list")
+    public ResponseEntity<List<ShoppingListItem>> buildShoppingList(
+            @RequestBody @Size(max = MAX_RECIPE_IDS) List<Long> recipeIds,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(userPantryService.buildShoppingList(userId, recipeIds));
     }
     
     /**
@@ -42,13 +110,26 @@ public class UserPantryController {
      * Add an item to the user's pantry
      */
     @PostMapping
-    public ResponseEntity<UserPantry> addPantryItem(@Valid @RequestBody UserPantry pantryItem) {
-        Long userId = 1L; // Hardcoded for workshop purposes
+    public ResponseEntity<UserPantry> addPantryItem(
+            @Valid @RequestBody UserPantry pantryItem,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
         pantryItem.setUserId(userId);
-        UserPantry saved = userPantryService.addPantryItem(pantryItem);
+        UserPantry saved = retryingInsertRace(() -> userPantryService.addPantryItem(pantryItem));
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
     
+    /**
+     * Add many items to the pantry in one request. Items for an ingredient
+     * already in the pantry are added to its quantity; the rest become new
+     * items.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<PantryBatchResult> upsertPantryItems(
+            @RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid PantryItemRequest> items,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        return ResponseEntity.ok(retryingInsertRace(() -> userPantryService.upsertPantryItems(userId, items)));
+    }
+    
     /**
      * Update quantity of a pantry item
      * NOTE: Workshop participants will implement this endpoint using Copilot
@@ -56,17 +137,40 @@ public class UserPantryController {
     // TODO: Implement PUT /api/pantry/{id} endpoint
     
     /**
-     * Delete a pantry item
+     * Delete one of the current user's pantry items
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletePantryItem(@PathVariable Long id) {
-        userPantryService.deletePantryItem(id);
+    public ResponseEntity<Void> deletePantryItem(
+            @PathVariable Long id,
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        userPantryService.deletePantryItem(userId, id);
         return ResponseEntity.noContent().build();
     }
     
     /**
-     * Clear all items from user's pantry
-     * NOTE: Workshop participants will implement this endpoint using Copilot
+     * Clear all items from the current user's pantry
      */
-    // TODO: Implement DELETE /api/pantry endpoint to clear all items
+    @DeleteMapping
+    public ResponseEntity<Void> clearPantry(
+            @RequestHeader(CurrentUser.HEADER) @Positive Long userId) {
+        userPantryService.clearUserPantry(userId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    /**
+     * Run a pantry upsert, once more if a concurrent request inserted one of
+     * its ingredients first: the retry finds that row and adds to it. Responds
+     * 409 if it loses the race again.
+     */
+    private static <T> T retryingInsertRace(Supplier<T> upsert) {
+        try {
+            return upsert.get();
+        } catch (DataIntegrityViolationException e) {
+            try {
+                return upsert.get();
+            } catch (DataIntegrityViolationException again) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Pantry changed concurrently, please retry");
+            }
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a bulk import request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResult {
+    
+    private int imported;
+    
+    private long elapsedMillis;
+    
+    private double rowsPerSecond;
+}
@@ -0,0 +1,22 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Compact change notification pushed to change-stream subscribers
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeNotification {
+    
+    private String type;
+    
+    private Long id;
+    
+    private Long version;
+    
+    private String op; // create, update or delete
+}
@@ -0,0 +1,27 @@
+package com.coveros.training.flavorhub.dto;
+
+import com.coveros.training.flavorhub.model.UserPantry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of cooking a recipe: the pantry items after deduction, and the
+ * recipe ingredients that were not deducted because they have no quantity or
+ * do not match a known ingredient
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CookResult {
+    
+    private Long recipeId;
+    
+    private String recipeName;
+    
+    private List<UserPantry> pantryItems;
+    
+    private List<String> notDeducted;
+}
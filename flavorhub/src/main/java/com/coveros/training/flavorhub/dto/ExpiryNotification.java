@@ -0,0 +1,19 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Pushed to a user's change-stream subscribers when pantry items start
+ * expiring soon
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiryNotification {
+    
+    private List<Long> ids;
+}
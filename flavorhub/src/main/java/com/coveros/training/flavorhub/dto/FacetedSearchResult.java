@@ -0,0 +1,23 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recipes matching a faceted filter, with counts for each facet value
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResult {
+    
+    private int total;
+    
+    private List<RecipeSummary> recipes;
+    
+    private Map<String, Map<String, Integer>> facets; // dimension -> value -> count
+}
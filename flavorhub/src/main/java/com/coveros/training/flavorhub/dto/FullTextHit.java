@@ -0,0 +1,24 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A full-text search result with its BM25 score and highlighted snippets
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FullTextHit {
+    
+    private Long recipeId;
+    
+    private String recipeName;
+    
+    private double score;
+    
+    private List<String> highlights; // HTML-escaped, matching words wrapped in <em>
+}
@@ -0,0 +1,18 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How many rows refer to an ingredient, from a GROUP BY on its id
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientCount {
+    
+    private Long ingredientId;
+    
+    private Long count;
+}
@@ -0,0 +1,25 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One recipe_ingredients row with its quantity in base units. The name is
+ * the canonical ingredient name when the row resolved to an ingredient.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientRequirement {
+    
+    private Long recipeId;
+    
+    private Long ingredientId; // null if the name did not resolve to an ingredient
+    
+    private String ingredientName;
+    
+    private Double baseQuantity;
+    
+    private String baseUnit;
+}
@@ -0,0 +1,20 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An ingredient offered by typeahead, with how many pantry items and recipes use it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientSuggestion {
+    
+    private Long id;
+    
+    private String name;
+    
+    private int popularity;
+}
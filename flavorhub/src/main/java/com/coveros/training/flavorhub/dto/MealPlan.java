@@ -0,0 +1,29 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A set of recipes chosen to use as much of the pantry as possible while
+ * needing as few extra ingredients as possible
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPlan {
+    
+    private List<RecipeSummary> recipes;
+    
+    private int pantryIngredientsUsed;
+    
+    private List<String> ingredientsToBuy;
+    
+    private boolean optimal; // false if the deadline passed before the search finished
+    
+    private long plansExamined;
+    
+    private long elapsedMillis;
+}
@@ -0,0 +1,24 @@
+package com.coveros.training.flavorhub.dto;
+
+import com.coveros.training.flavorhub.model.UserPantry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch pantry upsert: how many rows were inserted and updated,
+ * and the resulting row for each distinct ingredient
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PantryBatchResult {
+    
+    private int inserted;
+    
+    private int updated;
+    
+    private List<UserPantry> items;
+}
@@ -0,0 +1,22 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Just what the expiry scheduler needs to know about a pantry item
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PantryExpiry {
+    
+    private Long id;
+    
+    private Long userId;
+    
+    private Instant expiresAt;
+}
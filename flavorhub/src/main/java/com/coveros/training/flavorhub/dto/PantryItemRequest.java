@@ -0,0 +1,30 @@
+package com.coveros.training.flavorhub.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One item of a batch pantry upsert: an amount of an ingredient to add
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PantryItemRequest {
+    
+    @NotNull(message = "Ingredient ID is required")
+    private Long ingredientId;
+    
+    @Min(value = 0, message = "Quantity must be positive")
+    private Double quantity;
+    
+    private String unit;
+    
+    private String notes;
+    
+    private Instant expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recipe id with the hash of its searchable text
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeContentHash {
+    
+    private Long id;
+    
+    private Integer contentHash;
+}
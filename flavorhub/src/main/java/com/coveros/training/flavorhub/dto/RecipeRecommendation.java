@@ -0,0 +1,26 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recipe recommended from pantry contents, with how well the pantry covers it
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeRecommendation {
+    
+    private Long recipeId;
+    
+    private String recipeName;
+    
+    private int matchedIngredients;
+    
+    private int totalIngredients;
+    
+    private int missingIngredients;
+    
+    private double coverage; // matchedIngredients / totalIngredients
+}
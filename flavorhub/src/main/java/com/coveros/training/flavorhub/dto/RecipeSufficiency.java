@@ -0,0 +1,24 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Whether a user's pantry holds enough of every ingredient a recipe needs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSufficiency {
+    
+    private Long recipeId;
+    
+    private String recipeName;
+    
+    private boolean sufficient;
+    
+    private List<String> insufficientIngredients; // missing, too little, or in a unit that can't be compared
+}
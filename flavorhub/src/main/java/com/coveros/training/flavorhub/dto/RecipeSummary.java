@@ -0,0 +1,32 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight view of a recipe for listings, without ingredients or instructions
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSummary {
+    
+    private Long id;
+    
+    private String name;
+    
+    private Integer prepTime;
+    
+    private Integer cookTime;
+    
+    private Integer servings;
+    
+    private String difficultyLevel;
+    
+    private String cuisineType;
+    
+    private Integer ingredientCount;
+    
+    private String imageUrl;
+}
@@ -0,0 +1,18 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recipe id with its current version, enough to look up cached renderings
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeVersion {
+    
+    private Long id;
+    
+    private Long version;
+}
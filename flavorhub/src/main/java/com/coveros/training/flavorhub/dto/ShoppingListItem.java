@@ -0,0 +1,20 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Amount of an ingredient still to buy, in its base unit (ml, g or count)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShoppingListItem {
+    
+    private String ingredientName;
+    
+    private Double quantity; // null when the recipes don't give a quantity
+    
+    private String unit;
+}
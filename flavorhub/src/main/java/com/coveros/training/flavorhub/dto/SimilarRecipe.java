@@ -0,0 +1,20 @@
+package com.coveros.training.flavorhub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A recipe with a similar ingredient set, scored by Jaccard similarity (0 to 1)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarRecipe {
+    
+    private Long recipeId;
+    
+    private String recipeName;
+    
+    private double similarity;
+}
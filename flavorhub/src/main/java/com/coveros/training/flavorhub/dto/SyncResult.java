@@ -0,0 +1,51 @@
+package com.coveros.training.flavorhub.dto;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.UserPantry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response of a delta sync. With snapshot false the lists hold only rows
+ * written since the client's token, and deleted maps "pantry", "ingredient"
+ * and "recipe" to the ids removed since then. With snapshot true the lists
+ * are complete and the client should replace what it has. Either way, token
+ * is what to send next time.
+ *
+ * A delta holds at most a page of each list. When more is true the token
+ * stops short of the latest change, and the client should sync again from
+ * it straight away.
+ *
+ * A snapshot holds the whole pantry but only the first page of ingredients
+ * and recipes. When there are more, ingredientsCursor and recipesCursor are
+ * the cursors to continue with on GET /api/ingredients and /api/recipes; rows
+ * written while the client pages are picked up by the next sync from token.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResult {
+
+    private String token;
+
+    private boolean snapshot;
+
+    private boolean more;
+
+    private List<UserPantry> pantry;
+
+    private List<Ingredient> ingredients;
+
+    private List<Recipe> recipes;
+
+    private Map<String, List<Long>> deleted;
+
+    private String ingredientsCursor;
+
+    private String recipesCursor;
+}
@@ -0,0 +1,64 @@
+package com.coveros.training.flavorhub.event;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.service.ChangeSequence;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns row changes into EntityChangedEvents and
+ * stamps each written row with the next ChangeSequence number.
+ * Hibernate obtains it from the Spring context, so it can publish events.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    private final ChangeSequence changeSequence;
+    
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        if (entity instanceof Recipe recipe) {
+            recipe.setChangeSeq(changeSequence.next());
+        } else if (entity instanceof Ingredient ingredient) {
+            ingredient.setChangeSeq(changeSequence.next());
+        } else if (entity instanceof UserPantry item) {
+            item.setChangeSeq(changeSequence.next());
+        }
+    }
+    
+    @PostPersist
+    public void created(Object entity) {
+        publish(entity, EntityChangedEvent.CREATE);
+    }
+    
+    @PostUpdate
+    public void updated(Object entity) {
+        publish(entity, EntityChangedEvent.UPDATE);
+    }
+    
+    @PostRemove
+    public void deleted(Object entity) {
+        publish(entity, EntityChangedEvent.DELETE);
+    }
+    
+    private void publish(Object entity, String operation) {
+        if (entity instanceof Recipe recipe) {
+            eventPublisher.publishEvent(new EntityChangedEvent("recipe", recipe.getId(), recipe.getVersion(), operation, null));
+        } else if (entity instanceof Ingredient ingredient) {
+            eventPublisher.publishEvent(new EntityChangedEvent("ingredient", ingredient.getId(), ingredient.getVersion(), operation, null));
+        } else if (entity instanceof UserPantry item) {
+            eventPublisher.publishEvent(new EntityChangedEvent("pantry", item.getId(), item.getVersion(), operation, item.getUserId()));
+        }
+    }
+}
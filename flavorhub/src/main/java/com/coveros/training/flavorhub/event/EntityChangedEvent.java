@@ -0,0 +1,28 @@
+package com.coveros.training.flavorhub.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by EntityChangeListener for every insert, update and delete of a
+ * recipe, ingredient or pantry item, whichever code path made it.
+ * Listeners receive it after the transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class EntityChangedEvent {
+    
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String DELETE = "delete";
+    
+    private final String entityType; // "recipe", "ingredient" or "pantry"
+    
+    private final Long entityId;
+    
+    private final Long version;
+    
+    private final String operation;
+    
+    private final Long userId; // owner of a pantry item, null for shared entities
+}
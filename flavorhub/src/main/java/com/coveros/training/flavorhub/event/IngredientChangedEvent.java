@@ -0,0 +1,30 @@
+package com.coveros.training.flavorhub.event;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by IngredientService whenever an ingredient is saved or deleted.
+ * In-memory indexes listen for this event after the transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class IngredientChangedEvent {
+    
+    private final Long ingredientId;
+    
+    private final Ingredient ingredient; // null when the ingredient was deleted
+    
+    public static IngredientChangedEvent saved(Ingredient ingredient) {
+        return new IngredientChangedEvent(ingredient.getId(), ingredient);
+    }
+    
+    public static IngredientChangedEvent deleted(Long ingredientId) {
+        return new IngredientChangedEvent(ingredientId, null);
+    }
+    
+    public boolean isDeleted() {
+        return ingredient == null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.coveros.training.flavorhub.event;
+
+import com.coveros.training.flavorhub.model.UserPantry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by UserPantryService whenever a user's pantry changes.
+ * Listeners receive it after the transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class PantryChangedEvent {
+    
+    private final Long userId;
+    
+    private final Long pantryItemId; // null when the whole pantry was cleared
+    
+    private final UserPantry pantryItem; // null when the item was deleted
+    
+    private final Long ingredientId; // null when the whole pantry was cleared
+    
+    public static PantryChangedEvent saved(UserPantry pantryItem) {
+        return new PantryChangedEvent(pantryItem.getUserId(), pantryItem.getId(), pantryItem,
+                pantryItem.getIngredient().getId());
+    }
+    
+    public static PantryChangedEvent deleted(Long userId, Long pantryItemId, Long ingredientId) {
+        return new PantryChangedEvent(userId, pantryItemId, null, ingredientId);
+    }
+    
+    public static PantryChangedEvent cleared(Long userId) {
+        return new PantryChangedEvent(userId, null, null, null);
+    }
+    
+    public boolean isDeleted() {
+        return pantryItem == null;
+    }
+}
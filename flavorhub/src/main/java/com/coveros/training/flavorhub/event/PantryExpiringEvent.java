@@ -0,0 +1,18 @@
+package com.coveros.training.flavorhub.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by ExpiryTimingWheel once per tick with every pantry item that
+ * entered its expiring-soon window during that tick, grouped by user
+ */
+@Getter
+@AllArgsConstructor
+public class PantryExpiringEvent {
+    
+    private final Map<Long, List<Long>> itemIdsByUser;
+}
@@ -0,0 +1,31 @@
+package com.coveros.training.flavorhub.event;
+
+import com.coveros.training.flavorhub.model.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by RecipeService whenever a recipe is saved or deleted.
+ * In-memory indexes listen for this event after the transaction commits
+ * so they never see changes that were rolled back.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeChangedEvent {
+    
+    private final Long recipeId;
+    
+    private final Recipe recipe; // null when the recipe was deleted
+    
+    public static RecipeChangedEvent saved(Recipe recipe) {
+        return new RecipeChangedEvent(recipe.getId(), recipe);
+    }
+    
+    public static RecipeChangedEvent deleted(Long recipeId) {
+        return new RecipeChangedEvent(recipeId, null);
+    }
+    
+    public boolean isDeleted() {
+        return recipe == null;
+    }
+}
@@ -1,16 +1,24 @@
 package com.coveros.training.flavorhub.model;
 
+import com.coveros.training.flavorhub.event.EntityChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Represents an ingredient that can be used in recipes
  */
 @Entity
-@Table(name = "ingredients")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "ingredients", indexes = @Index(name = "idx_ingredients_change_seq", columnList = "change_seq"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "ingredients")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,6 +28,14 @@ public class Ingredient {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @NotBlank(message = "Ingredient name is required")
     @Column(nullable = false, unique = true)
     private String name;
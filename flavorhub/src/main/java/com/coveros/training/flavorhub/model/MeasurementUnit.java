@@ -0,0 +1,82 @@
+package com.coveros.training.flavorhub.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Known cooking units and their conversion factors to a canonical base unit.
+ *
+ * Volumes are stored in millilitres, weights in grams and counted items as
+ * "count". Every spelling a unit may be written with is resolved through one
+ * lookup table built at class load, so quantities are normalized once when
+ * they are written rather than parsed again each time they are compared.
+ * Units that are not in the table ("cloves", "heads", "cans") are kept as
+ * their own base unit and only compare equal to the same spelling.
+ */
+public enum MeasurementUnit {
+
+    MILLILITER("ml", 1.0, "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+    LITER("ml", 1000.0, "l", "liter", "liters", "litre", "litres"),
+    TEASPOON("ml", 4.92892, "tsp", "teaspoon", "teaspoons"),
+    TABLESPOON("ml", 14.7868, "tbsp", "tbs", "tablespoon", "tablespoons"),
+    FLUID_OUNCE("ml", 29.5735, "fl oz", "floz", "fluid ounce", "fluid ounces"),
+    CUP("ml", 236.588, "c", "cup", "cups"),
+    PINT("ml", 473.176, "pt", "pint", "pints"),
+    QUART("ml", 946.353, "qt", "quart", "quarts"),
+    GALLON("ml", 3785.41, "gal", "gallon", "gallons"),
+    PINCH("ml", 0.308, "pinch", "pinches"),
+    DASH("ml", 0.616, "dash", "dashes"),
+
+    MILLIGRAM("g", 0.001, "mg", "milligram", "milligrams"),
+    GRAM("g", 1.0, "g", "gram", "grams"),
+    KILOGRAM("g", 1000.0, "kg", "kilogram", "kilograms"),
+    OUNCE("g", 28.3495, "oz", "ounce", "ounces"),
+    POUND("g", 453.592, "lb", "lbs", "pound", "pounds"),
+
+    COUNT("count", 1.0, "", "whole", "each", "ea", "piece", "pieces", "item", "items");
+
+    private static final Map<String, MeasurementUnit> BY_SPELLING = new HashMap<>();
+
+    static {
+        for (MeasurementUnit unit : values()) {
+            for (String spelling : unit.spellings) {
+                BY_SPELLING.put(spelling, unit);
+            }
+        }
+    }
+
+    private final String baseUnit;
+    private final double toBase;
+    private final String[] spellings;
+
+    MeasurementUnit(String baseUnit, double toBase, String... spellings) {
+        this.baseUnit = baseUnit;
+        this.toBase = toBase;
+        this.spellings = spellings;
+    }
+
+    /**
+     * Base unit a quantity in the given unit is stored in; a missing unit counts items
+     */
+    public static String baseUnitOf(String unit) {
+        String key = key(unit);
+        MeasurementUnit known = BY_SPELLING.get(key);
+        return known == null ? key : known.baseUnit;
+    }
+
+    /**
+     * Convert a quantity to its base unit, or null if there is no quantity
+     */
+    public static Double toBaseQuantity(Double quantity, String unit) {
+        if (quantity == null) {
+            return null;
+        }
+        MeasurementUnit known = BY_SPELLING.get(key(unit));
+        return known == null ? quantity : quantity * known.toBase;
+    }
+
+    private static String key(String unit) {
+        return unit == null ? "" : unit.trim().toLowerCase(Locale.ROOT).replaceAll("\\.$", "");
+    }
+}
@@ -1,5 +1,8 @@
 package com.coveros.training.flavorhub.model;
 
+import com.coveros.training.flavorhub.event.EntityChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -7,24 +10,46 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a recipe with its ingredients and instructions
  */
 @Entity
-@Table(name = "recipes")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "recipes", indexes = {
+    @Index(name = "idx_recipes_total_time", columnList = "total_time, id"),
+    @Index(name = "idx_recipes_cuisine_total_time", columnList = "cuisine_type, total_time, id"),
+    @Index(name = "idx_recipes_difficulty_total_time", columnList = "difficulty_level, total_time, id"),
+    @Index(name = "idx_recipes_cuisine_difficulty_total_time", columnList = "cuisine_type, difficulty_level, total_time, id"),
+    @Index(name = "idx_recipes_change_seq", columnList = "change_seq")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipes")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Recipe {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+    @SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @NotBlank(message = "Recipe name is required")
     @Column(nullable = false)
     private String name;
@@ -40,6 +65,16 @@ public class Recipe {
     @Min(value = 0, message = "Cook time must be positive")
     private Integer cookTime; // in minutes
     
+    // Persisted prep + cook time so range queries can use an index; maintained by updateDerivedColumns()
+    @Column(name = "total_time")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer totalTime; // in minutes
+    
+    // Hash of the searchable text, so FullTextIndex can tell which recipes changed while it was offline
+    @Column(name = "content_hash")
+    @JsonIgnore
+    private Integer contentHash;
+    
     @Column(name = "servings")
     @Min(value = 1, message = "Servings must be at least 1")
     private Integer servings;
@@ -51,10 +86,15 @@ public class Recipe {
     private String cuisineType; // e.g., "Italian", "Mexican", "Asian"
     
     @ElementCollection
-    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "recipe_id"))
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-ingredients")
+    @CollectionTable(name = "recipe_ingredients", joinColumns = @JoinColumn(name = "recipe_id"),
+            indexes = @Index(name = "idx_recipe_ingredients_ingredient_id", columnList = "ingredient_id"))
     private List<RecipeIngredient> ingredients = new ArrayList<>();
     
     @ElementCollection
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "recipe-instructions")
     @CollectionTable(name = "recipe_instructions", joinColumns = @JoinColumn(name = "recipe_id"))
     @OrderColumn(name = "step_number")
     private List<String> instructions = new ArrayList<>();
@@ -72,4 +112,13 @@ public class Recipe {
         this.difficultyLevel = difficultyLevel;
         this.cuisineType = cuisineType;
     }
+    
+    @PrePersist
+    @PreUpdate
+    void updateDerivedColumns() {
+        totalTime = (prepTime == null ? 0 : prepTime) + (cookTime == null ? 0 : cookTime);
+        ingredients.forEach(RecipeIngredient::normalizeUnit);
+        contentHash = Objects.hash(name, description, instructions,
+                ingredients.stream().map(RecipeIngredient::getIngredientName).toList());
+    }
 }
@@ -1,5 +1,6 @@
 package com.coveros.training.flavorhub.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import lombok.AllArgsConstructor;
@@ -26,4 +27,30 @@ public class RecipeIngredient {
     
     @Column(name = "notes")
     private String notes; // e.g., "chopped", "diced", "optional"
+    
+    // Quantity converted to ml, g or count when the recipe is saved; see MeasurementUnit
+    @Column(name = "base_quantity")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double baseQuantity;
+    
+    @Column(name = "base_unit")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String baseUnit;
+    
+    // Ingredient the name resolved to when the recipe was saved; null if none matched. See IngredientNameResolver
+    @Column(name = "ingredient_id")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long ingredientId;
+    
+    public RecipeIngredient(String ingredientName, Double quantity, String unit, String notes) {
+        this.ingredientName = ingredientName;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.notes = notes;
+    }
+    
+    void normalizeUnit() {
+        baseQuantity = MeasurementUnit.toBaseQuantity(quantity, unit);
+        baseUnit = MeasurementUnit.baseUnitOf(unit);
+    }
 }
@@ -0,0 +1,49 @@
+package com.coveros.training.flavorhub.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Records a deleted recipe, ingredient or pantry item so delta sync can tell
+ * clients to drop it. Kept for flavorhub.sync.tombstone-retention.
+ */
+@Entity
+@Table(name = "sync_tombstones",
+       indexes = @Index(name = "idx_sync_tombstones_change_seq", columnList = "change_seq"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sync_tombstone_seq")
+    @SequenceGenerator(name = "sync_tombstone_seq", sequenceName = "sync_tombstone_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq;
+
+    @Column(name = "entity_type", nullable = false)
+    private String entityType; // "recipe", "ingredient" or "pantry"
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "user_id")
+    private Long userId; // owner of a pantry item, null for shared entities
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public SyncTombstone(Long changeSeq, String entityType, Long entityId, Long userId, Instant deletedAt) {
+        this.changeSeq = changeSeq;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+}
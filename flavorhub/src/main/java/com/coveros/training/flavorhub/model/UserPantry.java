@@ -1,5 +1,8 @@
 package com.coveros.training.flavorhub.model;
 
+import com.coveros.training.flavorhub.event.EntityChangeListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -7,20 +10,38 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 /**
  * Represents an ingredient in a user's pantry with quantity
  */
 @Entity
-@Table(name = "user_pantry")
+@EntityListeners(EntityChangeListener.class)
+@Table(name = "user_pantry",
+       indexes = {
+           @Index(name = "idx_user_pantry_user_id", columnList = "user_id, id"),
+           @Index(name = "idx_user_pantry_expires_at", columnList = "expires_at"),
+           @Index(name = "idx_user_pantry_user_change_seq", columnList = "user_id, change_seq")
+       },
+       uniqueConstraints = @UniqueConstraint(name = "uk_user_pantry_user_ingredient", columnNames = {"user_id", "ingredient_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class UserPantry {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_pantry_seq")
+    @SequenceGenerator(name = "user_pantry_seq", sequenceName = "user_pantry_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
+    @Column(name = "change_seq")
+    @JsonIgnore
+    private Long changeSeq;
+    
     @Column(name = "user_id")
     @NotNull(message = "User ID is required")
     private Long userId; // In a real app, this would be a relationship to a User entity
@@ -40,10 +61,30 @@ public class UserPantry {
     @Column(name = "notes")
     private String notes; // e.g., "expires soon", "in freezer"
     
+    // When the item goes off; drives the expiring-soon list and notifications. See ExpiryTimingWheel
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+    
+    // Quantity converted to ml, g or count on every write; see MeasurementUnit
+    @Column(name = "base_quantity")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Double baseQuantity;
+    
+    @Column(name = "base_unit")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String baseUnit;
+    
     public UserPantry(Long userId, Ingredient ingredient, Double quantity, String unit) {
         this.userId = userId;
         this.ingredient = ingredient;
         this.quantity = quantity;
         this.unit = unit;
     }
+    
+    @PrePersist
+    @PreUpdate
+    void normalizeUnit() {
+        baseQuantity = MeasurementUnit.toBaseQuantity(quantity, unit);
+        baseUnit = MeasurementUnit.baseUnitOf(unit);
+    }
 }
@@ -1,12 +1,20 @@
 package com.coveros.training.flavorhub.repository;
 
 import com.coveros.training.flavorhub.model.Company;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository for managing Company entities
  */
 @Repository
 public interface CompanyRepository extends JpaRepository<Company, Long> {
+    
+    /**
+     * Find the next page of companies after the given id (keyset pagination)
+     */
+    List<Company> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
 }
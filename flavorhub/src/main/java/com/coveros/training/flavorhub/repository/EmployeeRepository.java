@@ -1,9 +1,11 @@
 package com.coveros.training.flavorhub.repository;
 
 import com.coveros.training.flavorhub.model.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,6 +14,11 @@ import java.util.Optional;
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     
+    /**
+     * Find the next page of employees after the given id (keyset pagination)
+     */
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
     /**
      * Find an employee by username
      */
@@ -1,11 +1,18 @@
 package com.coveros.training.flavorhub.repository;
 
 import com.coveros.training.flavorhub.model.Ingredient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Ingredient entities
@@ -14,8 +21,36 @@ import java.util.Optional;
 public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
     
     /**
-     * Find an ingredient by name (case-insensitive)
+     * Read only the version of an ingredient, for cheap ETag checks
      */
+    @Query("SELECT i.version FROM Ingredient i WHERE i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    /**
+     * Find the first ingredients written in (since, until], for delta sync
+     */
+    @Query("SELECT i FROM Ingredient i WHERE i.changeSeq > :since AND i.changeSeq <= :until ORDER BY i.changeSeq, i.id")
+    List<Ingredient> findChangedBetween(@Param("since") long since, @Param("until") long until, Limit limit);
+    
+    @Query("SELECT MAX(i.changeSeq) FROM Ingredient i")
+    Long findMaxChangeSeq();
+    
+    /**
+     * Find the next page of ingredients after the given id (keyset pagination)
+     */
+    List<Ingredient> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    /**
+     * Stream every ingredient in id order for export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i FROM Ingredient i ORDER BY i.id")
+    Stream<Ingredient> streamAll();
+    
+    /**
+     * Find an ingredient by name (case-insensitive); results are kept in the query cache
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Ingredient> findByNameIgnoreCase(String name);
     
     /**
@@ -1,12 +1,25 @@
 package com.coveros.training.flavorhub.repository;
 
+import com.coveros.training.flavorhub.dto.IngredientCount;
+import com.coveros.training.flavorhub.dto.IngredientRequirement;
+import com.coveros.training.flavorhub.dto.RecipeContentHash;
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.dto.RecipeVersion;
 import com.coveros.training.flavorhub.model.Recipe;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Recipe entities
@@ -14,6 +27,63 @@ import java.util.List;
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     
+    /**
+     * Read only the version of a recipe, for cheap ETag checks
+     */
+    @Query("SELECT r.version FROM Recipe r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+    
+    /**
+     * Find the next page of recipes after the given id (keyset pagination)
+     */
+    List<Recipe> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    /**
+     * Read the id and content hash of every recipe
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.RecipeContentHash(r.id, r.contentHash) FROM Recipe r")
+    List<RecipeContentHash> findContentHashes();
+    
+    /**
+     * Read only the ids and versions of the next page of recipes
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.RecipeVersion(r.id, r.version) " +
+           "FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<RecipeVersion> findVersionsAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * List a page of recipe summaries in a single statement, counting ingredients
+     * without loading the ingredient or instruction collections
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.RecipeSummary(" +
+           "r.id, r.name, r.prepTime, r.cookTime, r.servings, r.difficultyLevel, r.cuisineType, " +
+           "SIZE(r.ingredients), r.imageUrl) FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<RecipeSummary> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Get the ingredient rows of many recipes in a single query, without
+     * loading the recipes themselves
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.IngredientRequirement(" +
+           "r.id, i.ingredientId, COALESCE(g.name, i.ingredientName), i.baseQuantity, i.baseUnit) " +
+           "FROM Recipe r JOIN r.ingredients i LEFT JOIN Ingredient g ON g.id = i.ingredientId WHERE r.id IN :ids")
+    List<IngredientRequirement> findIngredientRequirements(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Stream every recipe in id order for export; must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM Recipe r ORDER BY r.id")
+    Stream<Recipe> streamAll();
+    
+    /**
+     * Load the summaries for specific recipes in a single statement
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.RecipeSummary(" +
+           "r.id, r.name, r.prepTime, r.cookTime, r.servings, r.difficultyLevel, r.cuisineType, " +
+           "SIZE(r.ingredients), r.imageUrl) FROM Recipe r WHERE r.id IN :ids ORDER BY r.id")
+    List<RecipeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
     /**
      * Find recipes by difficulty level
      */
@@ -30,15 +100,143 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     List<Recipe> findByNameContainingIgnoreCase(String searchTerm);
     
     /**
-     * Find recipes that can be made in a specific time (total time = prep + cook)
-     * NOTE: This method is intentionally left incomplete for workshop participants to implement
-     * They will use Copilot to complete this query
+     * Find recipes that can be made in a specific time (total time = prep + cook),
+     * quickest first. Each variant is a range scan on one of the total_time indexes.
+     */
+    List<Recipe> findByTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(Integer maxMinutes, Limit limit);
+    
+    List<Recipe> findByCuisineTypeAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+            String cuisineType, Integer maxMinutes, Limit limit);
+    
+    List<Recipe> findByDifficultyLevelAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+            String difficultyLevel, Integer maxMinutes, Limit limit);
+    
+    List<Recipe> findByCuisineTypeAndDifficultyLevelAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+            String cuisineType, String difficultyLevel, Integer maxMinutes, Limit limit);
+    
+    /**
+     * Find recipes that contain a specific ingredient, by its id; an index
+     * range scan on recipe_ingredients.ingredient_id
+     */
+    @Query("SELECT r FROM Recipe r WHERE r.id IN " +
+           "(SELECT r2.id FROM Recipe r2 JOIN r2.ingredients i WHERE i.ingredientId = :ingredientId) ORDER BY r.id")
+    List<Recipe> findByIngredientId(@Param("ingredientId") Long ingredientId);
+    
+    /**
+     * Ids of the recipes matching every given criterion; null criteria match anything
+     */
+    @Query("SELECT r.id FROM Recipe r WHERE " +
+           "(:cuisineType IS NULL OR r.cuisineType = :cuisineType) " +
+           "AND (:difficultyLevel IS NULL OR r.difficultyLevel = :difficultyLevel) " +
+           "AND (:maxMinutes IS NULL OR r.totalTime <= :maxMinutes)")
+    List<Long> findIdsMatching(@Param("cuisineType") String cuisineType,
+                               @Param("difficultyLevel") String difficultyLevel,
+                               @Param("maxMinutes") Integer maxMinutes);
+    
+    @Query("SELECT r.id FROM Recipe r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Find the first recipes written in (since, until], for delta sync
+     */
+    @Query("SELECT r FROM Recipe r WHERE r.changeSeq > :since AND r.changeSeq <= :until ORDER BY r.changeSeq, r.id")
+    List<Recipe> findChangedBetween(@Param("since") long since, @Param("until") long until, Limit limit);
+    
+    @Query("SELECT MAX(r.changeSeq) FROM Recipe r")
+    Long findMaxChangeSeq();
+    
+    /**
+     * Delete recipes in bulk. Hibernate removes their ingredient and
+     * instruction rows with one statement per collection table first, and
+     * evicts the affected second-level cache regions.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Recipe r WHERE r.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Delete ingredient rows whose recipe no longer exists
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recipe_ingredients"))
+    @Query(value = "DELETE FROM recipe_ingredients ri WHERE NOT EXISTS (SELECT 1 FROM recipes r WHERE r.id = ri.recipe_id)",
+           nativeQuery = true)
+    int deleteOrphanedIngredients();
+    
+    /**
+     * Delete instruction rows whose recipe no longer exists
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recipe_instructions"))
+    @Query(value = "DELETE FROM recipe_instructions ri WHERE NOT EXISTS (SELECT 1 FROM recipes r WHERE r.id = ri.recipe_id)",
+           nativeQuery = true)
+    int deleteOrphanedInstructions();
+    
+    /**
+     * Distinct ingredient names of rows that have not been resolved to an ingredient
+     */
+    @Query("SELECT DISTINCT i.ingredientName FROM Recipe r JOIN r.ingredients i " +
+           "WHERE i.ingredientId IS NULL AND i.ingredientName IS NOT NULL")
+    List<String> findUnresolvedIngredientNames();
+    
+    /**
+     * Ids of the recipes with an unresolved row named one of the given names
+     */
+    @Query("SELECT DISTINCT r.id FROM Recipe r JOIN r.ingredients i " +
+           "WHERE i.ingredientId IS NULL AND i.ingredientName IN :names")
+    List<Long> findIdsWithUnresolvedIngredientNames(@Param("names") Collection<String> names);
+    
+    /**
+     * Number of recipes using each resolved ingredient
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.IngredientCount(i.ingredientId, COUNT(DISTINCT r.id)) " +
+           "FROM Recipe r JOIN r.ingredients i WHERE i.ingredientId IS NOT NULL GROUP BY i.ingredientId")
+    List<IngredientCount> countByIngredientId();
+    
+    /**
+     * Number of recipes using each of the given ingredients; ingredients no recipe uses are left out
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.IngredientCount(i.ingredientId, COUNT(DISTINCT r.id)) " +
+           "FROM Recipe r JOIN r.ingredients i WHERE i.ingredientId IN :ingredientIds GROUP BY i.ingredientId")
+    List<IngredientCount> countByIngredientIdIn(@Param("ingredientIds") Collection<Long> ingredientIds);
+    
+    /**
+     * Ids of the recipes with a row resolved to the given ingredient
+     */
+    @Query("SELECT DISTINCT r.id FROM Recipe r JOIN r.ingredients i WHERE i.ingredientId = :ingredientId")
+    List<Long> findIdsByIngredientId(@Param("ingredientId") Long ingredientId);
+    
+    /**
+     * Point unresolved rows with one of the given names at an ingredient. The
+     * query space keeps Hibernate from clearing every cache region; it does not
+     * evict the recipe-ingredients collections, so the caller must (see
+     * IngredientNameResolver).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recipe_ingredients"))
+    @Query(value = "UPDATE recipe_ingredients SET ingredient_id = :ingredientId " +
+                   "WHERE ingredient_id IS NULL AND ingredient_name IN (:names)", nativeQuery = true)
+    int resolveIngredientNames(@Param("ingredientId") Long ingredientId, @Param("names") Collection<String> names);
+    
+    /**
+     * Clear the ingredient id of every row pointing at an ingredient that was
+     * renamed or deleted, so the rows can be resolved again. As above, the
+     * caller evicts the affected collections.
      */
-    // TODO: Implement method to find recipes by max total time
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recipe_ingredients"))
+    @Query(value = "UPDATE recipe_ingredients SET ingredient_id = NULL WHERE ingredient_id = :ingredientId",
+           nativeQuery = true)
+    int unresolveIngredient(@Param("ingredientId") Long ingredientId);
     
     /**
-     * Find recipes that contain a specific ingredient
-     * NOTE: This is an advanced query that workshop participants will implement using Copilot
+     * Bump the version and change sequence of recipes whose ingredient rows
+     * were rewritten by a native update, so ETags, delta sync and the
+     * second-level cache all see the change
      */
-    // TODO: Implement method to find recipes containing a specific ingredient name
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "recipes"))
+    @Query(value = "UPDATE recipes SET version = version + 1, change_seq = :changeSeq WHERE id IN (:ids)",
+           nativeQuery = true)
+    int touchRecipes(@Param("ids") Collection<Long> ids, @Param("changeSeq") long changeSeq);
 }
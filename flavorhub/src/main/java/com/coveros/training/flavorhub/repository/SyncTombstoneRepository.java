@@ -0,0 +1,42 @@
+package com.coveros.training.flavorhub.repository;
+
+import com.coveros.training.flavorhub.model.SyncTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for delete records used by delta sync
+ */
+@Repository
+public interface SyncTombstoneRepository extends JpaRepository<SyncTombstone, Long> {
+
+    /**
+     * Find the first deletes a user should see in (since, until]: shared entities and their own pantry items
+     */
+    @Query("SELECT t FROM SyncTombstone t WHERE t.changeSeq > :since AND t.changeSeq <= :until " +
+           "AND (t.userId IS NULL OR t.userId = :userId) ORDER BY t.changeSeq, t.id")
+    List<SyncTombstone> findForUser(@Param("userId") Long userId, @Param("since") long since,
+                                    @Param("until") long until, Limit limit);
+
+    @Query("SELECT MAX(t.changeSeq) FROM SyncTombstone t")
+    Long findMaxChangeSeq();
+
+    /**
+     * Highest change sequence among tombstones older than the cutoff, or null
+     */
+    @Query("SELECT MAX(t.changeSeq) FROM SyncTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxChangeSeqDeletedBefore(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SyncTombstone t WHERE t.changeSeq <= :changeSeq")
+    int deleteUpTo(@Param("changeSeq") long changeSeq);
+}
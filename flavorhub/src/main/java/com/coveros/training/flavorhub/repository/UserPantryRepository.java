@@ -1,11 +1,23 @@
 package com.coveros.training.flavorhub.repository;
 
+import com.coveros.training.flavorhub.dto.IngredientCount;
+import com.coveros.training.flavorhub.dto.PantryExpiry;
 import com.coveros.training.flavorhub.model.UserPantry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing UserPantry entities
@@ -18,13 +30,100 @@ public interface UserPantryRepository extends JpaRepository<UserPantry, Long> {
      */
     List<UserPantry> findByUserId(Long userId);
     
+    /**
+     * Stream a user's pantry items with their ingredients in id order for export;
+     * must be consumed inside a transaction
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p FROM UserPantry p JOIN FETCH p.ingredient WHERE p.userId = :userId ORDER BY p.id")
+    Stream<UserPantry> streamByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Find all of a user's pantry items with their ingredients in a single query, in id order
+     */
+    @Query("SELECT p FROM UserPantry p JOIN FETCH p.ingredient WHERE p.userId = :userId ORDER BY p.id")
+    List<UserPantry> findWithIngredientByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Get the names of the ingredients in a user's pantry in a single query
+     */
+    @Query("SELECT p.ingredient.name FROM UserPantry p WHERE p.userId = :userId")
+    List<String> findIngredientNamesByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Number of pantry items holding each ingredient, across all users
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.IngredientCount(p.ingredient.id, COUNT(p)) " +
+           "FROM UserPantry p GROUP BY p.ingredient.id")
+    List<IngredientCount> countByIngredientId();
+    
+    /**
+     * Number of pantry items holding each of the given ingredients; ingredients nobody holds are left out
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.IngredientCount(p.ingredient.id, COUNT(p)) " +
+           "FROM UserPantry p WHERE p.ingredient.id IN :ingredientIds GROUP BY p.ingredient.id")
+    List<IngredientCount> countByIngredientIdIn(@Param("ingredientIds") Collection<Long> ingredientIds);
+    
+    /**
+     * Find a user's pantry items for any of the given ingredients, with their
+     * ingredients, in a single query
+     */
+    @Query("SELECT p FROM UserPantry p JOIN FETCH p.ingredient WHERE p.userId = :userId AND p.ingredient.id IN :ingredientIds")
+    List<UserPantry> findWithIngredientByUserIdAndIngredientIdIn(@Param("userId") Long userId,
+                                                                 @Param("ingredientIds") Collection<Long> ingredientIds);
+    
+    // How much of one pantry row's ingredient, in its base unit, a recipe needs; null if none
+    String RECIPE_NEEDS = "SELECT SUM(ri.base_quantity) FROM recipe_ingredients ri " +
+                          "WHERE ri.recipe_id = :recipeId AND ri.ingredient_id = p.ingredient_id " +
+                          "AND ri.base_unit = p.base_unit AND ri.base_quantity > 0";
+    
+    /**
+     * Deduct everything a recipe needs from a user's pantry in one statement.
+     * Each pantry row is reduced by the sum of the recipe rows resolved to its
+     * ingredient in its base unit, but only if it holds at least that much, so
+     * concurrent deductions can never take a row below zero. Returns the number
+     * of pantry rows deducted. Deducted rows are stamped with changeSeq.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_pantry"))
+    @Query(value = "UPDATE user_pantry p SET " +
+                   "quantity = p.quantity - p.quantity * (" + RECIPE_NEEDS + ") / p.base_quantity, " +
+                   "base_quantity = p.base_quantity - (" + RECIPE_NEEDS + "), " +
+                   "version = p.version + 1, change_seq = :changeSeq " +
+                   "WHERE p.user_id = :userId AND p.base_quantity >= (" + RECIPE_NEEDS + ")", nativeQuery = true)
+    int deductRecipeIngredients(@Param("userId") Long userId, @Param("recipeId") Long recipeId,
+                                @Param("changeSeq") long changeSeq);
+    
+    /**
+     * Find the pantry items that expire in [from, to), using the expires_at index
+     */
+    @Query("SELECT new com.coveros.training.flavorhub.dto.PantryExpiry(p.id, p.userId, p.expiresAt) " +
+           "FROM UserPantry p WHERE p.expiresAt >= :from AND p.expiresAt < :to")
+    List<PantryExpiry> findExpiringBetween(@Param("from") Instant from, @Param("to") Instant to);
+    
+    /**
+     * Find a user's first pantry items written in (since, until], with their ingredients, for delta sync
+     */
+    @Query("SELECT p FROM UserPantry p JOIN FETCH p.ingredient WHERE p.userId = :userId " +
+           "AND p.changeSeq > :since AND p.changeSeq <= :until ORDER BY p.changeSeq, p.id")
+    List<UserPantry> findChangedBetween(@Param("userId") Long userId, @Param("since") long since,
+                                        @Param("until") long until, Limit limit);
+    
+    @Query("SELECT MAX(p.changeSeq) FROM UserPantry p")
+    Long findMaxChangeSeq();
+    
     /**
      * Find a specific pantry item by user and ingredient
      */
     Optional<UserPantry> findByUserIdAndIngredientId(Long userId, Long ingredientId);
     
+    @Query("SELECT p.id FROM UserPantry p WHERE p.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+    
     /**
-     * Delete all pantry items for a specific user
+     * Delete all pantry items for a specific user in a single statement
      */
-    void deleteByUserId(Long userId);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM UserPantry p WHERE p.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
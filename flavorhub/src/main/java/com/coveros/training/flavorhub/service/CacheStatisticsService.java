@@ -0,0 +1,52 @@
+package com.coveros.training.flavorhub.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads hit, miss and eviction counts for the second-level cache regions from
+ * the standard JCache statistics MBeans, which Caffeine registers for every
+ * cache that has monitoring.statistics enabled in application.conf
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private static final String[] ATTRIBUTES = {
+        "CacheHits", "CacheMisses", "CacheHitPercentage", "CachePuts", "CacheRemovals", "CacheEvictions"
+    };
+
+    private final PantryCache pantryCache;
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Statistics per cache region, keyed by region name, plus the per-user
+     * pantry cache as "user-pantry"
+     */
+    public Map<String, Map<String, Object>> getRegionStatistics() {
+        Map<String, Map<String, Object>> regions = new TreeMap<>();
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                for (String attribute : ATTRIBUTES) {
+                    values.put(attribute, mBeanServer.getAttribute(name, attribute));
+                }
+                String region = name.getKeyProperty("Cache");
+                regions.put(region.startsWith("\"") ? ObjectName.unquote(region) : region, values);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to read cache statistics", e);
+        }
+        regions.put("user-pantry", pantryCache.getStatistics());
+        return regions;
+    }
+}
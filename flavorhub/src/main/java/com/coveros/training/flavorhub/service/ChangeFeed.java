@@ -0,0 +1,298 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.ChangeNotification;
+import com.coveros.training.flavorhub.dto.ExpiryNotification;
+import com.coveros.training.flavorhub.event.EntityChangedEvent;
+import com.coveros.training.flavorhub.event.PantryExpiringEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fans committed entity changes, and pantry expiry notices, out to
+ * Server-Sent Events subscribers.
+ *
+ * Subscribers hold an async servlet request rather than a thread. Each change
+ * is serialized once and appended to a ring buffer of recent history; the
+ * append only wakes subscribers, each of which follows the history with its
+ * own cursor, so it costs the same whether a subscriber is keeping up or not.
+ * Sends block on the client's socket, so they run on a pool that only holds
+ * threads for subscribers with something to write, and a subscriber whose
+ * send has been stuck for flavorhub.change-feed.send-timeout is disconnected
+ * without holding anyone else up. A subscriber that falls a whole history
+ * behind is disconnected too. Either way it can reconnect with Last-Event-ID
+ * and replay whatever is still in the history; if its position has already
+ * left the history, or belongs to an earlier run of the server, it is sent a
+ * "reset" event and should reload instead.
+ */
+@Slf4j
+@Component
+public class ChangeFeed {
+
+    public static final int HISTORY_SIZE = 512;
+
+    private static final long SUBSCRIPTION_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final ObjectWriter writer;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long sendTimeoutNanos;
+
+    private final AtomicReferenceArray<Entry> history = new AtomicReferenceArray<>(HISTORY_SIZE);
+    private long lastSequence; // guarded by this
+    private volatile long published; // highest sequence readable from history
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(daemon("change-feed-sender"));
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(daemon("change-feed-heartbeat"));
+
+    public ChangeFeed(ObjectMapper objectMapper,
+                      @Value("${flavorhub.change-feed.heartbeat}") Duration heartbeat,
+                      @Value("${flavorhub.change-feed.send-timeout}") Duration sendTimeout) {
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Open a subscription for a user, replaying what happened after lastEventId if given
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(new SseEmitter(SUBSCRIPTION_TIMEOUT_MILLIS), userId, lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, Long userId, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, userId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        synchronized (this) {
+            subscriber.position = lastSequence;
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long after = parseSequence(lastEventId);
+                if (after < 0 || after > lastSequence || after < lastSequence - HISTORY_SIZE) {
+                    subscriber.resetPending = true;
+                } else {
+                    subscriber.position = after;
+                }
+            }
+            subscriber.heartbeatPending = true; // sends the response headers straight away
+            subscribers.add(subscriber);
+        }
+        subscriber.wake();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        ChangeNotification notification = new ChangeNotification(
+                event.getEntityType(), event.getEntityId(), event.getVersion(), event.getOperation());
+        append(event.getUserId(), "change", notification);
+    }
+
+    /**
+     * Tell each user which of their pantry items just started expiring soon
+     */
+    @EventListener
+    public void onPantryExpiring(PantryExpiringEvent event) {
+        event.getItemIdsByUser().forEach((userId, ids) -> append(userId, "expiring", new ExpiryNotification(ids)));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        senders.shutdown();
+    }
+
+    private void append(Long userId, String name, Object payload) {
+        String json;
+        try {
+            json = writer.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + name + " notification", e);
+        }
+
+        synchronized (this) {
+            long sequence = ++lastSequence;
+            history.set(slot(sequence), new Entry(sequence, userId, name, json));
+            published = sequence;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.wake();
+        }
+    }
+
+    /**
+     * Scheduled task: disconnect subscribers stuck in a send, and keep the rest alive
+     */
+    private void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                log.debug("Disconnecting change feed subscriber for user {}: send stalled", subscriber.userId);
+                subscriber.close();
+            } else {
+                subscriber.heartbeatPending = true;
+                subscriber.wake();
+            }
+        }
+    }
+
+    private static int slot(long sequence) {
+        return (int) (sequence % HISTORY_SIZE);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Sequence number from an event id issued by this run of the server, or -1
+     */
+    private long parseSequence(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A committed change with its JSON rendered once for all subscribers.
+     * Pantry changes and expiry notices carry their owner and are only sent to that user.
+     */
+    private record Entry(long sequence, Long userId, String name, String json) {
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long userId;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long position; // last sequence handled; set in subscribe, then only touched by drain
+        private volatile boolean resetPending;
+        private volatile boolean heartbeatPending;
+        private volatile long sendStarted; // System.nanoTime() of the send in progress, or 0
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, Long userId) {
+            this.emitter = emitter;
+            this.userId = userId;
+        }
+
+        /**
+         * Make sure a drain will run; never blocks
+         */
+        void wake() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false); // shutting down
+                }
+            }
+        }
+
+        /**
+         * Stop sending; the emitter is completed by the drain, once no send is in progress
+         */
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            wake();
+        }
+
+        private boolean hasWork() {
+            return closed || resetPending || heartbeatPending || position < published;
+        }
+
+        /**
+         * Runs on a sender thread; at most one drain per subscriber at a time
+         */
+        private void drain() {
+            while (true) {
+                if (closed) {
+                    subscribers.remove(this);
+                    emitter.complete();
+                    return;
+                }
+                try {
+                    if (resetPending) {
+                        resetPending = false;
+                        send(SseEmitter.event().name("reset").data("{}"));
+                    } else if (position < published) {
+                        long sequence = position + 1;
+                        Entry entry = history.get(slot(sequence));
+                        if (entry == null || entry.sequence != sequence) {
+                            closed = true; // a whole history behind: reconnecting gets a reset
+                            continue;
+                        }
+                        position = sequence;
+                        if (entry.userId == null || entry.userId.equals(userId)) {
+                            send(SseEmitter.event().id(eventId(sequence)).name(entry.name).data(entry.json));
+                        }
+                    } else if (heartbeatPending) {
+                        heartbeatPending = false;
+                        send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        scheduled.set(false);
+                        // A wake may have raced with the flag being cleared
+                        if (!hasWork() || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    closed = true; // client went away
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStarted = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendStarted = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.coveros.training.flavorhub.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * Monotonic sequence stamped on every write to a synced table, for delta sync.
+ * EntityChangeListener stores it in the change_seq column of each recipe,
+ * ingredient and pantry row it writes, and SyncService returns the rows
+ * above a client's token.
+ *
+ * Numbers are handed out when a row is flushed but become visible only when
+ * its transaction commits, so a reader could see sequence 12 committed while
+ * 11 is still in flight and never come back for 11. To prevent that, the
+ * first number each transaction takes stays registered until it completes,
+ * and readers only trust numbers up to stable(): everything at or below it
+ * belongs to a finished transaction.
+ */
+@Component
+public class ChangeSequence {
+
+    private long last; // guarded by this
+    private final TreeSet<Long> inFlight = new TreeSet<>(); // first number of each open transaction; guarded by this
+
+    /**
+     * Next number, held in flight until the current transaction (if any) completes
+     */
+    public synchronized long next() {
+        long sequence = ++last;
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            inFlight.add(sequence);
+            TransactionSynchronizationManager.bindResource(this, sequence);
+            TransactionSynchronizationManager.registerSynchronization(new Completion(sequence));
+        }
+        return sequence;
+    }
+
+    /**
+     * Highest number below which every write has committed or rolled back
+     */
+    public synchronized long stable() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    /**
+     * Continue after the highest number already stored
+     */
+    public synchronized void advanceTo(long sequence) {
+        last = Math.max(last, sequence);
+    }
+
+    private synchronized void completed(long first) {
+        inFlight.remove(first);
+    }
+
+    private final class Completion implements TransactionSynchronization {
+
+        private final long first;
+
+        Completion(long first) {
+            this.first = first;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ChangeSequence.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ChangeSequence.this, first);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+            completed(first);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters for whole collections, used as ETags for list endpoints.
+ *
+ * Each counter is bumped after any committed change to its collection, so a
+ * list ETag can be compared without running the list query or hashing the
+ * response body. Tags include the startup time so that counters restarting
+ * at zero never produce a tag a client saw before the restart.
+ *
+ * A single recipe, ingredient or pantry item is tagged with its JPA @Version
+ * instead, which Hibernate increments on every update and which the native
+ * bulk updates increment themselves; it doubles as the optimistic lock.
+ */
+@Component
+public class CollectionVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong recipes = new AtomicLong();
+    private final AtomicLong ingredients = new AtomicLong();
+    private final Map<Long, AtomicLong> pantries = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        recipes.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        ingredients.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPantryChanged(PantryChangedEvent event) {
+        pantries.computeIfAbsent(event.getUserId(), id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public String recipesTag() {
+        return "recipes-" + epoch + "-" + recipes.get();
+    }
+
+    public String ingredientsTag() {
+        return "ingredients-" + epoch + "-" + ingredients.get();
+    }
+
+    /**
+     * Pantry items embed their ingredient, so the tag also changes with ingredients
+     */
+    public String pantryTag(Long userId) {
+        AtomicLong pantry = pantries.get(userId);
+        return "pantry-" + userId + "-" + epoch + "-" + (pantry == null ? 0 : pantry.get()) + "-" + ingredients.get();
+    }
+
+    /**
+     * Strong ETag value for a single versioned entity
+     */
+    public static String entityTag(String type, Long id, Long version) {
+        return type + "-" + id + "-v" + version;
+    }
+}
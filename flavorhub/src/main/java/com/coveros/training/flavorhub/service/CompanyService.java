@@ -3,6 +3,7 @@ package com.coveros.training.flavorhub.service;
 import com.coveros.training.flavorhub.model.Company;
 import com.coveros.training.flavorhub.repository.CompanyRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +27,13 @@ public class CompanyService {
         return companyRepository.findAll();
     }
     
+    /**
+     * Get up to limit companies with ids greater than afterId, in id order
+     */
+    public List<Company> getCompaniesAfter(long afterId, int limit) {
+        return companyRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
     /**
      * Get company by ID
      */
@@ -3,6 +3,7 @@ package com.coveros.training.flavorhub.service;
 import com.coveros.training.flavorhub.model.Employee;
 import com.coveros.training.flavorhub.repository.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +27,13 @@ public class EmployeeService {
         return employeeRepository.findAll();
     }
     
+    /**
+     * Get up to limit employees with ids greater than afterId, in id order
+     */
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
     /**
      * Get employee by ID
      */
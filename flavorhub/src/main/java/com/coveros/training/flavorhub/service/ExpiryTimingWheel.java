@@ -0,0 +1,310 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryExpiry;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
+import com.coveros.training.flavorhub.event.PantryExpiringEvent;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Schedules "expiring soon" notifications for pantry items with a
+ * hierarchical timing wheel.
+ *
+ * An item is due one notice period before it expires. The wheel has three
+ * levels of slots (with the default one-minute tick: minutes of the hour,
+ * hours of the day and the next eight days); an item goes into the finest
+ * level whose range covers its due time, and each slot is a doubly linked
+ * list, so scheduling and cancelling are O(1). Every tick fires the slot
+ * that just elapsed as one PantryExpiringEvent, and whenever a coarser slot
+ * comes due its items are redistributed to the finer levels.
+ *
+ * Only items due within the wheel's horizon are held in memory. The rest
+ * stay in the database and are loaded one day bucket at a time, with a range
+ * query on expires_at, as the horizon moves forward. A bucket whose load
+ * fails is retried on the next tick, and a failed tick is logged rather than
+ * stopping the ticker.
+ */
+@Slf4j
+@Component
+public class ExpiryTimingWheel {
+
+    private static final int[] LEVEL_SIZES = {60, 24, 8};
+
+    private static final int TOP = LEVEL_SIZES.length - 1;
+
+    private final UserPantryRepository userPantryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long tickMillis;
+    private final Duration notice;
+
+    private final long[] slotMillis = new long[LEVEL_SIZES.length];
+    private final Bucket[][] levels = new Bucket[LEVEL_SIZES.length][];
+    private final Map<Long, Timer> timers = new HashMap<>();
+
+    // All guarded by this
+    private boolean started;
+    private long currentTime; // start of the current tick
+    private long loadedUntil; // every item due before this is in the wheel
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pantry-expiry-ticker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ExpiryTimingWheel(UserPantryRepository userPantryRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${flavorhub.pantry-expiry.tick}") Duration tick,
+                             @Value("${flavorhub.pantry-expiry.notice}") Duration notice) {
+        this.userPantryRepository = userPantryRepository;
+        this.eventPublisher = eventPublisher;
+        this.tickMillis = tick.toMillis();
+        this.notice = notice;
+        long slot = tickMillis;
+        for (int level = 0; level < LEVEL_SIZES.length; level++) {
+            slotMillis[level] = slot;
+            levels[level] = new Bucket[LEVEL_SIZES[level]];
+            for (int i = 0; i < LEVEL_SIZES[level]; i++) {
+                levels[level][i] = new Bucket();
+            }
+            slot *= LEVEL_SIZES[level];
+        }
+    }
+
+    /**
+     * How long before expiry an item counts as expiring soon
+     */
+    public Duration getNotice() {
+        return notice;
+    }
+
+    /**
+     * Load every item due within the horizon and start ticking
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            currentTime = floor(now, tickMillis);
+            loadedUntil = horizon(currentTime);
+            load(currentTime, loadedUntil, now);
+            started = true;
+        }
+        ticker.scheduleAtFixedRate(this::tick, currentTime + tickMillis - now, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Scheduled task; an exception escaping it would cancel every later run
+     */
+    private void tick() {
+        try {
+            advance(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.warn("Pantry expiry tick failed, retrying on the next tick", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPantryChanged(PantryChangedEvent event) {
+        if (!started) {
+            return; // start() reads everything from the database
+        }
+        if (event.getPantryItemId() == null) {
+            timers.values().removeIf(timer -> {
+                if (timer.userId.equals(event.getUserId())) {
+                    timer.unlink();
+                    return true;
+                }
+                return false;
+            });
+            return;
+        }
+        cancel(event.getPantryItemId());
+        UserPantry item = event.getPantryItem();
+        if (item != null && item.getExpiresAt() != null) {
+            schedule(item.getId(), item.getUserId(), item.getExpiresAt(), System.currentTimeMillis(), loadedUntil);
+        }
+    }
+
+    /**
+     * Number of items currently held in the wheel
+     */
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * Move the wheel forward to now one tick at a time, firing each elapsed
+     * slot and redistributing coarser slots as they come due, then load the
+     * day buckets the horizon has moved past
+     */
+    void advance(long now) {
+        Map<Long, List<Long>> due = new HashMap<>();
+        try {
+            synchronized (this) {
+                while (currentTime + tickMillis <= now) {
+                    levels[0][slot(0, currentTime)].drain(timer -> {
+                        timers.remove(timer.itemId);
+                        due.computeIfAbsent(timer.userId, id -> new ArrayList<>()).add(timer.itemId);
+                    });
+                    currentTime += tickMillis;
+                    for (int level = TOP; level > 0; level--) {
+                        if (currentTime % slotMillis[level] == 0) {
+                            levels[level][slot(level, currentTime)].drain(this::insert);
+                        }
+                    }
+                }
+                // loadedUntil only moves once a bucket has loaded, so a failed one is retried next tick
+                long horizon = horizon(currentTime);
+                while (loadedUntil < horizon) {
+                    load(loadedUntil, loadedUntil + slotMillis[TOP], now);
+                    loadedUntil += slotMillis[TOP];
+                }
+            }
+        } finally {
+            if (!due.isEmpty()) {
+                eventPublisher.publishEvent(new PantryExpiringEvent(due));
+            }
+        }
+    }
+
+    /**
+     * Read the items due in [from, to) from the database into the wheel
+     */
+    private void load(long from, long to, long now) {
+        Instant expiresFrom = Instant.ofEpochMilli(from).plus(notice);
+        Instant expiresTo = Instant.ofEpochMilli(to).plus(notice);
+        for (PantryExpiry expiry : userPantryRepository.findExpiringBetween(expiresFrom, expiresTo)) {
+            cancel(expiry.getId());
+            schedule(expiry.getId(), expiry.getUserId(), expiry.getExpiresAt(), now, to);
+        }
+    }
+
+    /**
+     * Schedule an item unless its notice time has already passed; items due
+     * at or after limit are left for load()
+     */
+    private void schedule(Long itemId, Long userId, Instant expiresAt, long now, long limit) {
+        long dueAt = expiresAt.minus(notice).toEpochMilli();
+        if (dueAt > now && dueAt < limit) {
+            Timer timer = new Timer(itemId, userId, dueAt);
+            timers.put(itemId, timer);
+            insert(timer);
+        }
+    }
+
+    private void insert(Timer timer) {
+        for (int level = 0; level < LEVEL_SIZES.length; level++) {
+            long levelStart = floor(currentTime, slotMillis[level]);
+            if (timer.dueAt < levelStart + slotMillis[level] * LEVEL_SIZES[level]) {
+                levels[level][slot(level, timer.dueAt)].add(timer);
+                return;
+            }
+        }
+        throw new IllegalStateException("Timer beyond the loaded horizon: " + timer.itemId);
+    }
+
+    private void cancel(Long itemId) {
+        Timer timer = timers.remove(itemId);
+        if (timer != null) {
+            timer.unlink();
+        }
+    }
+
+    /**
+     * End of the range the wheel covers when the current tick starts at time
+     */
+    private long horizon(long time) {
+        return floor(time, slotMillis[TOP]) + slotMillis[TOP] * LEVEL_SIZES[TOP];
+    }
+
+    private int slot(int level, long time) {
+        return (int) ((time / slotMillis[level]) % LEVEL_SIZES[level]);
+    }
+
+    private static long floor(long time, long unit) {
+        return time - Math.floorMod(time, unit);
+    }
+
+    private static final class Timer {
+
+        private final Long itemId;
+        private final Long userId;
+        private final long dueAt;
+        private Timer previous;
+        private Timer next;
+
+        Timer(Long itemId, Long userId, long dueAt) {
+            this.itemId = itemId;
+            this.userId = userId;
+            this.dueAt = dueAt;
+        }
+
+        void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+
+    /**
+     * Circular doubly linked list of timers around a sentinel
+     */
+    private static final class Bucket {
+
+        private final Timer head = new Timer(null, null, 0);
+
+        Bucket() {
+            head.previous = head;
+            head.next = head;
+        }
+
+        void add(Timer timer) {
+            timer.previous = head.previous;
+            timer.next = head;
+            head.previous.next = timer;
+            head.previous = timer;
+        }
+
+        /**
+         * Empty the bucket, handing each timer to the consumer
+         */
+        void drain(Consumer<Timer> consumer) {
+            Timer timer = head.next;
+            head.next = head;
+            head.previous = head;
+            while (timer != head) {
+                Timer next = timer.next;
+                timer.previous = null;
+                timer.next = null;
+                consumer.accept(timer);
+                timer = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables out as newline-delimited JSON (one compact object per line).
+ *
+ * Rows are read from a JDBC cursor in chunks; each chunk is written and then
+ * cleared from the persistence context, so heap use stays flat however large
+ * the table is.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int CHUNK_SIZE = 50; // matches @BatchSize on the Recipe collections
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+    private final UserPantryRepository userPantryRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public void exportRecipes(OutputStream out) {
+        try (Stream<Recipe> recipes = recipeRepository.streamAll()) {
+            writeAll(recipes, out, recipe -> {
+                Hibernate.initialize(recipe.getIngredients());
+                Hibernate.initialize(recipe.getInstructions());
+            });
+        }
+    }
+
+    public void exportIngredients(OutputStream out) {
+        try (Stream<?> ingredients = ingredientRepository.streamAll()) {
+            writeAll(ingredients, out, ingredient -> { });
+        }
+    }
+
+    public void exportPantry(Long userId, OutputStream out) {
+        try (Stream<?> items = userPantryRepository.streamByUserId(userId)) {
+            writeAll(items, out, item -> { });
+        }
+    }
+
+    /**
+     * Write rows chunk by chunk. Lazy associations are initialized for the whole
+     * chunk first so Hibernate can batch them, then the chunk is serialized and
+     * detached.
+     */
+    private <T> void writeAll(Stream<T> rows, OutputStream out, Consumer<T> initialize) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        rows.forEach(row -> {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, out, writer, initialize);
+            }
+        });
+        writeChunk(chunk, out, writer, initialize);
+    }
+
+    private <T> void writeChunk(List<T> chunk, OutputStream out, ObjectWriter writer, Consumer<T> initialize) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        chunk.forEach(initialize);
+        try {
+            for (T row : chunk) {
+                out.write(writer.writeValueAsBytes(row));
+                out.write(NEWLINE);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Export aborted while writing", e);
+        }
+        chunk.clear();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,313 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeContentHash;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BM25 full-text index over recipe names, descriptions, instructions and
+ * ingredient names.
+ *
+ * Each recipe is stored as weighted term frequencies (a term in the name
+ * counts three times, in an ingredient name twice, elsewhere once) and every
+ * term keeps a posting map from recipe id to frequency. The index is kept
+ * current from RecipeChangedEvent and written to disk on shutdown. At startup
+ * the saved index is loaded and compared against the content hash of every
+ * recipe, so only recipes that changed while the server was down are
+ * re-read and re-analyzed. The snapshot is only a startup shortcut: if it
+ * cannot be written, a warning is logged and the in-memory index carries on.
+ */
+@Slf4j
+@Component
+public class FullTextIndex {
+
+    private static final int MAGIC = 0x46544958; // "FTIX"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float INGREDIENT_WEIGHT = 2f;
+    private static final float TEXT_WEIGHT = 1f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int RELOAD_CHUNK_SIZE = 50;
+
+    private final RecipeRepository recipeRepository;
+    private final Path indexFile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private double totalLength;
+    private boolean dirty;
+
+    public FullTextIndex(RecipeRepository recipeRepository,
+                         @Value("${flavorhub.search.index-file}") String indexFile) {
+        this.recipeRepository = recipeRepository;
+        this.indexFile = Path.of(indexFile);
+    }
+
+    /**
+     * Load the saved index, then re-index only recipes that were added or
+     * changed since it was written and drop those that were deleted
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            readSnapshot();
+
+            Set<Long> unseen = new HashSet<>(documents.keySet());
+            List<Long> changed = new ArrayList<>();
+            for (RecipeContentHash current : recipeRepository.findContentHashes()) {
+                unseen.remove(current.getId());
+                Document document = documents.get(current.getId());
+                if (document == null || !Objects.equals(document.contentHash, current.getContentHash())) {
+                    changed.add(current.getId());
+                }
+            }
+            unseen.forEach(this::remove);
+            for (int from = 0; from < changed.size(); from += RELOAD_CHUNK_SIZE) {
+                List<Long> chunk = changed.subList(from, Math.min(from + RELOAD_CHUNK_SIZE, changed.size()));
+                recipeRepository.findAllById(chunk).forEach(this::put);
+            }
+            if (dirty) {
+                writeSnapshot();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                remove(event.getRecipeId());
+            } else {
+                put(event.getRecipe());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void save() {
+        lock.writeLock().lock();
+        try {
+            if (dirty) {
+                writeSnapshot();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank recipes against the query terms with BM25, best first
+     */
+    public List<Hit> search(Set<String> terms, int limit) {
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = totalLength / documents.size();
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                posting.forEach((recipeId, frequency) -> {
+                    double norm = K1 * (1 - B + B * documents.get(recipeId).length / averageLength);
+                    scores.merge(recipeId, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                });
+            }
+
+            PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score)
+                    .thenComparing(Hit::recipeId, Comparator.reverseOrder()));
+            scores.forEach((recipeId, score) -> {
+                top.add(new Hit(recipeId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(top.comparator().reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Recipe recipe) {
+        remove(recipe.getId());
+        Map<String, Float> frequencies = new HashMap<>();
+        addTerms(frequencies, recipe.getName(), NAME_WEIGHT);
+        addTerms(frequencies, recipe.getDescription(), TEXT_WEIGHT);
+        for (String instruction : recipe.getInstructions()) {
+            addTerms(frequencies, instruction, TEXT_WEIGHT);
+        }
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            addTerms(frequencies, ingredient.getIngredientName(), INGREDIENT_WEIGHT);
+        }
+        float length = 0;
+        for (float frequency : frequencies.values()) {
+            length += frequency;
+        }
+        add(recipe.getId(), new Document(recipe.getContentHash(), length, frequencies));
+    }
+
+    private void add(Long recipeId, Document document) {
+        documents.put(recipeId, document);
+        totalLength += document.length;
+        document.frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(recipeId, frequency));
+        dirty = true;
+    }
+
+    private void remove(Long recipeId) {
+        Document document = documents.remove(recipeId);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (String term : document.frequencies.keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(recipeId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        dirty = true;
+    }
+
+    private void clear() {
+        documents.clear();
+        postings.clear();
+        totalLength = 0;
+        dirty = false;
+    }
+
+    private static void addTerms(Map<String, Float> frequencies, String text, float weight) {
+        for (String term : TextAnalyzer.terms(text)) {
+            frequencies.merge(term, weight, Float::sum);
+        }
+    }
+
+    /**
+     * Read the saved index if there is a usable one; otherwise start empty
+     */
+    private void readSnapshot() {
+        if (!Files.isRegularFile(indexFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long recipeId = in.readLong();
+                Integer contentHash = in.readBoolean() ? in.readInt() : null;
+                float length = in.readFloat();
+                int terms = in.readInt();
+                Map<String, Float> frequencies = new HashMap<>(terms * 2);
+                for (int t = 0; t < terms; t++) {
+                    frequencies.put(in.readUTF(), in.readFloat());
+                }
+                add(recipeId, new Document(contentHash, length, frequencies));
+            }
+            dirty = false;
+        } catch (IOException e) {
+            clear(); // corrupt or truncated; everything is re-indexed from the database
+        }
+    }
+
+    /**
+     * Write the index to a temporary file and move it into place, so a crash
+     * never leaves a half-written index behind. On failure the index stays
+     * dirty and the next startup re-indexes from the database.
+     */
+    private void writeSnapshot() {
+        Path temp = null;
+        try {
+            Path directory = indexFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "fulltext", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(documents.size());
+                for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+                    Document document = entry.getValue();
+                    out.writeLong(entry.getKey());
+                    out.writeBoolean(document.contentHash != null);
+                    if (document.contentHash != null) {
+                        out.writeInt(document.contentHash);
+                    }
+                    out.writeFloat(document.length);
+                    out.writeInt(document.frequencies.size());
+                    for (Map.Entry<String, Float> term : document.frequencies.entrySet()) {
+                        out.writeUTF(term.getKey());
+                        out.writeFloat(term.getValue());
+                    }
+                }
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Could not save full-text index to {}", indexFile, e);
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // a stray temp file is harmless; the snapshot itself was never replaced
+                }
+            }
+        }
+    }
+
+    public record Hit(Long recipeId, double score) {
+    }
+
+    private record Document(Integer contentHash, float length, Map<String, Float> frequencies) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Integer keys for the ingredients of recipe rows, so ingredient-based
+ * indexes join on ids rather than names. A row resolved by
+ * IngredientNameResolver is keyed by its ingredient id; a row not resolved yet
+ * falls back to a negative key standing for its normalized name, the same
+ * fallback the pantry sufficiency check uses.
+ *
+ * Not thread-safe: owners guard an instance with their own lock.
+ */
+final class IngredientKeys {
+
+    private final Map<String, Long> unresolvedKeys = new HashMap<>();
+
+    /**
+     * Key of a recipe row, or null if it names nothing
+     */
+    Long keyOf(RecipeIngredient ingredient) {
+        if (ingredient.getIngredientId() != null) {
+            return ingredient.getIngredientId();
+        }
+        String name = IngredientNameResolver.normalize(ingredient.getIngredientName());
+        return name == null ? null : unresolvedKeys.computeIfAbsent(name, n -> -(unresolvedKeys.size() + 1L));
+    }
+
+    /**
+     * Add the keys a stocked ingredient matches: its id, and the key of any
+     * unresolved rows with its name
+     */
+    void addKeysOf(Ingredient ingredient, Collection<Long> keys) {
+        keys.add(ingredient.getId());
+        Long unresolved = unresolvedKey(ingredient.getName());
+        if (unresolved != null) {
+            keys.add(unresolved);
+        }
+    }
+
+    /**
+     * Key already given to unresolved rows with this name, or null
+     */
+    Long unresolvedKey(String name) {
+        String key = IngredientNameResolver.normalize(name);
+        return key == null ? null : unresolvedKeys.get(key);
+    }
+
+    void clear() {
+        unresolvedKeys.clear();
+    }
+}
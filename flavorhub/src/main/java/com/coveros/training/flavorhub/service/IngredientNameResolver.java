@@ -0,0 +1,226 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.EntityChangedEvent;
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the free-text ingredient names of recipes to Ingredient ids.
+ *
+ * Names are normalized before matching: anything in parentheses or after a
+ * comma is dropped, words are lower-cased and stemmed with TextAnalyzer, and a
+ * few common aliases are folded together, so "Tomatoes (Canned)", "tomato"
+ * and "TOMATOES, diced" all resolve to the Tomato ingredient. RecipeService
+ * resolves every recipe before it is written. Rows written any other way
+ * (sample data, or names that had no ingredient yet) are filled in by a
+ * backfill at startup and after every ingredient change. The backfill
+ * rewrites rows with native updates, so it then bumps the version and change
+ * sequence of the recipes it touched and publishes their change events, as a
+ * save through RecipeService would.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngredientNameResolver {
+
+    private static final String INGREDIENTS_ROLE = Recipe.class.getName() + ".ingredients";
+    
+    private static final Pattern PARENTHETICAL = Pattern.compile("\\([^)]*\\)");
+
+    private static final Map<String, String> ALIASES = aliases(
+            "scallion", "green onion",
+            "spring onion", "green onion",
+            "coriander", "cilantro",
+            "garbanzo bean", "chickpea",
+            "capsicum", "bell pepper",
+            "courgette", "zucchini",
+            "double cream", "heavy cream",
+            "chicken stock", "chicken broth",
+            "prawn", "shrimp");
+
+    private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final ChangeSequence changeSequence;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Both maps are replaced, never modified, so readers need no lock
+    private volatile Map<String, Long> idsByKey = Map.of();
+    private volatile Map<Long, String> keysById = Map.of();
+
+    /**
+     * Load the ingredient names, then resolve every row the sample data left unresolved
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        reload();
+        touch(backfill());
+    }
+
+    /**
+     * Runs in a new transaction after the ingredient change commits. Rows that
+     * pointed at a deleted or renamed ingredient are cleared and resolved again.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        String previousKey = keysById.get(event.getIngredientId());
+        reload();
+        Set<Long> changed = new HashSet<>();
+        if (previousKey != null && !previousKey.equals(keysById.get(event.getIngredientId()))) {
+            changed.addAll(recipeRepository.findIdsByIngredientId(event.getIngredientId()));
+            recipeRepository.unresolveIngredient(event.getIngredientId());
+        }
+        changed.addAll(backfill());
+        touch(changed);
+    }
+
+    /**
+     * Ingredient id for a recipe ingredient name, or null if none matches
+     */
+    public Long resolve(String ingredientName) {
+        String key = normalize(ingredientName);
+        return key == null ? null : idsByKey.get(key);
+    }
+
+    /**
+     * Set the ingredient id of every ingredient of a recipe about to be saved
+     */
+    public void resolve(Recipe recipe) {
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            ingredient.setIngredientId(resolve(ingredient.getIngredientName()));
+        }
+    }
+
+    /**
+     * Resolve the rows that have no ingredient id yet, with one update per
+     * matching ingredient. Returns the ids of the recipes changed.
+     */
+    Set<Long> backfill() {
+        Map<Long, List<String>> namesById = new HashMap<>();
+        for (String name : recipeRepository.findUnresolvedIngredientNames()) {
+            Long id = resolve(name);
+            if (id != null) {
+                namesById.computeIfAbsent(id, k -> new ArrayList<>()).add(name);
+            }
+        }
+        if (namesById.isEmpty()) {
+            return Set.of();
+        }
+        List<String> names = namesById.values().stream().flatMap(List::stream).toList();
+        Set<Long> recipeIds = new HashSet<>(recipeRepository.findIdsWithUnresolvedIngredientNames(names));
+        for (Map.Entry<Long, List<String>> entry : namesById.entrySet()) {
+            recipeRepository.resolveIngredientNames(entry.getKey(), entry.getValue());
+        }
+        return recipeIds;
+    }
+    
+    /**
+     * Bump the given recipes with one set-based update, then reload them and
+     * publish their change events. Hibernate only evicts collection regions for
+     * native updates of an owning entity's table, so the ingredient lists are
+     * evicted here: once so the reload below reads the new rows, and again after
+     * commit in case a concurrent read cached the old ones meanwhile.
+     */
+    private void touch(Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+        recipeRepository.touchRecipes(recipeIds, changeSequence.next());
+        evictIngredients(recipeIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictIngredients(recipeIds);
+                }
+            });
+        }
+        for (Recipe recipe : recipeRepository.findAllById(recipeIds)) {
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+            eventPublisher.publishEvent(RecipeChangedEvent.saved(recipe));
+            eventPublisher.publishEvent(new EntityChangedEvent(
+                    "recipe", recipe.getId(), recipe.getVersion(), EntityChangedEvent.UPDATE, null));
+        }
+    }
+
+    private void evictIngredients(Collection<Long> recipeIds) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        recipeIds.forEach(id -> cache.evictCollectionData(INGREDIENTS_ROLE, id));
+    }
+    
+    private synchronized void reload() {
+        Map<String, Long> ids = new HashMap<>();
+        Map<Long, String> keys = new HashMap<>();
+        List<Ingredient> ingredients = ingredientRepository.findAll();
+        ingredients.sort(Comparator.comparing(Ingredient::getId));
+        for (Ingredient ingredient : ingredients) {
+            String key = normalize(ingredient.getName());
+            if (key != null) {
+                keys.put(ingredient.getId(), key);
+                ids.putIfAbsent(key, ingredient.getId()); // the oldest ingredient wins a tie
+            }
+        }
+        idsByKey = ids;
+        keysById = keys;
+    }
+
+    /**
+     * Matching key for an ingredient name, or null if nothing is left of it
+     */
+    static String normalize(String name) {
+        String key = stem(name);
+        return key == null ? null : ALIASES.getOrDefault(key, key);
+    }
+
+    private static String stem(String name) {
+        if (name == null) {
+            return null;
+        }
+        String text = PARENTHETICAL.matcher(name).replaceAll(" ");
+        int comma = text.indexOf(',');
+        if (comma >= 0) {
+            text = text.substring(0, comma);
+        }
+        List<String> terms = TextAnalyzer.terms(text);
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+    private static Map<String, String> aliases(String... pairs) {
+        Map<String, String> aliases = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            aliases.put(stem(pairs[i]), stem(pairs[i + 1]));
+        }
+        return Map.copyOf(aliases);
+    }
+}
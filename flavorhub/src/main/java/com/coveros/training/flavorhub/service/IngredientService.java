@@ -1,11 +1,16 @@
 package com.coveros.training.flavorhub.service;
 
+import com.coveros.training.flavorhub.dto.IngredientSuggestion;
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
 import com.coveros.training.flavorhub.model.Ingredient;
 import com.coveros.training.flavorhub.repository.IngredientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,15 +23,30 @@ import java.util.Optional;
 public class IngredientService {
     
     private final IngredientRepository ingredientRepository;
+    private final NameSearchIndex nameSearchIndex;
+    private final IngredientSuggestIndex suggestIndex;
+    private final SyncService syncService;
+    private final ApplicationEventPublisher eventPublisher;
     
     public List<Ingredient> getAllIngredients() {
         return ingredientRepository.findAll();
     }
     
+    /**
+     * Get up to limit ingredients with ids greater than afterId, in id order
+     */
+    public List<Ingredient> getIngredientsAfter(long afterId, int limit) {
+        return ingredientRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+    
     public Optional<Ingredient> getIngredientById(Long id) {
         return ingredientRepository.findById(id);
     }
     
+    public Optional<Long> getIngredientVersion(Long id) {
+        return ingredientRepository.findVersionById(id);
+    }
+    
     public Optional<Ingredient> getIngredientByName(String name) {
         return ingredientRepository.findByNameIgnoreCase(name);
     }
@@ -35,15 +55,32 @@ public class IngredientService {
         return ingredientRepository.findByCategory(category);
     }
     
+    /**
+     * Search ingredients by name using the in-memory trigram index, then load
+     * only the matching rows by primary key
+     */
     public List<Ingredient> searchIngredients(String searchTerm) {
-        return ingredientRepository.findByNameContainingIgnoreCase(searchTerm);
+        List<Ingredient> ingredients = ingredientRepository.findAllById(nameSearchIndex.searchIngredientIds(searchTerm));
+        ingredients.sort(Comparator.comparing(Ingredient::getId));
+        return ingredients;
+    }
+    
+    /**
+     * Typeahead suggestions from the in-memory prefix trie, most popular first
+     */
+    public List<IngredientSuggestion> suggestIngredients(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
     }
     
     public Ingredient saveIngredient(Ingredient ingredient) {
-        return ingredientRepository.save(ingredient);
+        Ingredient saved = ingredientRepository.save(ingredient);
+        eventPublisher.publishEvent(IngredientChangedEvent.saved(saved));
+        return saved;
     }
     
     public void deleteIngredient(Long id) {
         ingredientRepository.deleteById(id);
+        syncService.recordDeletes("ingredient", List.of(id), null);
+        eventPublisher.publishEvent(IngredientChangedEvent.deleted(id));
     }
 }
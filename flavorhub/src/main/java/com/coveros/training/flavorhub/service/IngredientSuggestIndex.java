@@ -0,0 +1,414 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.IngredientCount;
+import com.coveros.training.flavorhub.dto.IngredientSuggestion;
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie for ingredient typeahead.
+ *
+ * Every ingredient is inserted under its full name and under each later word
+ * of the name, so "pep" finds "Black Pepper". Each trie node caches the ids
+ * of the MAX_SUGGESTIONS most popular ingredients below it, so a lookup only
+ * walks the prefix and reads one short list. Popularity is the number of
+ * pantry items holding the ingredient plus the number of recipes with a row
+ * resolved to it.
+ *
+ * Both counts are loaded with GROUP BY queries on the ingredient id. A
+ * recipe or pantry change re-counts only the ingredients it touched, and only
+ * the trie paths of ingredients whose rank changed are recomputed. Rows
+ * removed from a recipe are only known for recipes seen changing since
+ * startup, so the first change to any other recipe re-counts all recipe
+ * usage, as clearing a pantry does for pantry items.
+ */
+@Component
+@RequiredArgsConstructor
+public class IngredientSuggestIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final UserPantryRepository userPantryRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Integer> recipeCounts = new HashMap<>(); // by ingredient id
+    private final Map<Long, Integer> pantryCounts = new HashMap<>(); // by ingredient id
+    private final Map<Long, Set<Long>> recipeIngredientIds = new HashMap<>(); // of recipes changed since rebuild
+
+    private final Comparator<Long> byPopularity = Comparator
+            .<Long>comparingInt(id -> -entries.get(id).popularity)
+            .thenComparing(id -> entries.get(id).name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(id -> id);
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            entries.clear();
+            recipeCounts.clear();
+            pantryCounts.clear();
+            recipeIngredientIds.clear();
+
+            recipeRepository.countByIngredientId().forEach(count -> put(recipeCounts, count));
+            userPantryRepository.countByIngredientId().forEach(count -> put(pantryCounts, count));
+            for (Ingredient ingredient : ingredientRepository.findAll()) {
+                add(ingredient.getId(), ingredient.getName(), false);
+            }
+            rankAll(root);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getIngredientId());
+            if (!event.isDeleted()) {
+                add(event.getIngredientId(), event.getIngredient().getName(), true);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        Set<Long> after = event.isDeleted() ? Set.of() : ingredientIds(event.getRecipe());
+        Set<Long> before;
+        lock.readLock().lock();
+        try {
+            before = recipeIngredientIds.get(event.getRecipeId());
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean created = !event.isDeleted() && Long.valueOf(0).equals(event.getRecipe().getVersion());
+        if (before == null && created) {
+            before = Set.of();
+        }
+
+        Set<Long> affected = null; // null: every ingredient, since the recipe's old rows are unknown
+        List<IngredientCount> counts;
+        if (before == null) {
+            counts = recipeRepository.countByIngredientId();
+        } else {
+            affected = new HashSet<>(before);
+            affected.addAll(after);
+            counts = affected.isEmpty() ? List.of() : recipeRepository.countByIngredientIdIn(affected);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                recipeIngredientIds.remove(event.getRecipeId());
+            } else {
+                recipeIngredientIds.put(event.getRecipeId(), after);
+            }
+            recount(recipeCounts, affected, counts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPantryChanged(PantryChangedEvent event) {
+        Set<Long> affected = event.getIngredientId() == null ? null : Set.of(event.getIngredientId());
+        List<IngredientCount> counts = affected == null
+                ? userPantryRepository.countByIngredientId()
+                : userPantryRepository.countByIngredientIdIn(affected);
+
+        lock.writeLock().lock();
+        try {
+            recount(pantryCounts, affected, counts);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Most popular ingredients whose name, or a word of it, starts with the prefix
+     */
+    public List<IngredientSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<IngredientSuggestion> suggestions = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && i < limit; i++) {
+                Entry entry = entries.get(node.top[i]);
+                suggestions.add(new IngredientSuggestion(node.top[i], entry.name, entry.popularity));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index an ingredient; with rank false the caller ranks the whole trie afterwards
+     */
+    private void add(Long id, String name, boolean rank) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        String key = normalize(name);
+        entries.put(id, new Entry(name.strip(), key, popularity(id)));
+        for (String suffix : wordSuffixes(key)) {
+            insert(root, suffix, 0, id, rank);
+        }
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        for (String suffix : wordSuffixes(entry.key)) {
+            delete(root, suffix, 0, id);
+        }
+        entries.remove(id);
+    }
+
+    /**
+     * Replace the counts of the affected ingredients (all of them when null)
+     * with fresh ones and rerank those whose popularity changed
+     */
+    private void recount(Map<Long, Integer> counts, Collection<Long> affected, List<IngredientCount> fresh) {
+        Set<Long> changed = new HashSet<>(affected == null ? counts.keySet() : affected);
+        if (affected == null) {
+            counts.clear();
+        } else {
+            counts.keySet().removeAll(affected);
+        }
+        for (IngredientCount count : fresh) {
+            put(counts, count);
+            changed.add(count.getIngredientId());
+        }
+        changed.forEach(this::updatePopularity);
+    }
+
+    private static void put(Map<Long, Integer> counts, IngredientCount count) {
+        counts.put(count.getIngredientId(), count.getCount().intValue());
+    }
+
+    /**
+     * Recompute an ingredient's popularity and, if it changed, the cached
+     * rankings along its trie paths
+     */
+    private void updatePopularity(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        int popularity = popularity(id);
+        if (popularity != entry.popularity) {
+            entry.popularity = popularity;
+            for (String suffix : wordSuffixes(entry.key)) {
+                rerank(root, suffix, 0);
+            }
+        }
+    }
+
+    private int popularity(Long id) {
+        return pantryCounts.getOrDefault(id, 0) + recipeCounts.getOrDefault(id, 0);
+    }
+
+    private void insert(Node node, String key, int depth, Long id, boolean rank) {
+        if (depth == key.length()) {
+            node.ids.add(id);
+        } else {
+            insert(node.childOrCreate(key.charAt(depth)), key, depth + 1, id, rank);
+        }
+        if (rank) {
+            node.rank(byPopularity);
+        }
+    }
+
+    /**
+     * Rank every node once, children before parents, after a bulk load
+     */
+    private void rankAll(Node node) {
+        for (Node child : node.children) {
+            rankAll(child);
+        }
+        node.rank(byPopularity);
+    }
+
+    /**
+     * Remove an id under key; returns true if the node is left empty and can be pruned
+     */
+    private boolean delete(Node node, String key, int depth, Long id) {
+        if (depth == key.length()) {
+            node.ids.remove(id);
+        } else {
+            Node child = node.child(key.charAt(depth));
+            if (child != null && delete(child, key, depth + 1, id)) {
+                node.removeChild(key.charAt(depth));
+            }
+        }
+        node.rank(byPopularity);
+        return node.ids.isEmpty() && node.labels.length == 0;
+    }
+
+    private void rerank(Node node, String key, int depth) {
+        if (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child != null) {
+                rerank(child, key, depth + 1);
+            }
+        }
+        node.rank(byPopularity);
+    }
+
+    private static Set<Long> ingredientIds(Recipe recipe) {
+        Set<Long> ids = new HashSet<>();
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getIngredientId() != null) {
+                ids.add(ingredient.getIngredientId());
+            }
+        }
+        return ids;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * The key itself and the rest of it from the start of each later word
+     */
+    private static Set<String> wordSuffixes(String key) {
+        Set<String> suffixes = new LinkedHashSet<>();
+        suffixes.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            suffixes.add(key.substring(i + 1));
+        }
+        return suffixes;
+    }
+
+    /**
+     * Trie node with children in sorted parallel arrays and the cached top
+     * ingredient ids of its subtree
+     */
+    private static class Node {
+
+        private static final long[] NONE = new long[0];
+
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        final Set<Long> ids = new HashSet<>(1); // ingredients whose key ends here
+        long[] top = NONE;
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(labels, index + 1, newLabels, index, labels.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        /**
+         * Rebuild the cached top list from this node's own ids and its children's top lists
+         */
+        void rank(Comparator<Long> byPopularity) {
+            Set<Long> candidates = new HashSet<>(ids);
+            for (Node child : children) {
+                for (long id : child.top) {
+                    candidates.add(id);
+                }
+            }
+            List<Long> sorted = new ArrayList<>(candidates);
+            sorted.sort(byPopularity);
+            int size = Math.min(MAX_SUGGESTIONS, sorted.size());
+            long[] ranked = new long[size];
+            for (int i = 0; i < size; i++) {
+                ranked[i] = sorted.get(i);
+            }
+            top = ranked;
+        }
+    }
+
+    private static class Entry {
+
+        final String name;
+        final String key;
+        int popularity;
+
+        Entry(String name, String key, int popularity) {
+            this.name = name;
+            this.key = key;
+            this.popularity = popularity;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.coveros.training.flavorhub.service;
+
+/**
+ * Thrown when a recipe cannot be cooked because the pantry does not hold
+ * enough of at least one of its ingredients; the transaction is rolled back
+ * and the pantry is left unchanged
+ */
+public class InsufficientPantryException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long recipeId;
+    
+    public InsufficientPantryException(Long recipeId) {
+        super("Not enough in the pantry to cook recipe " + recipeId);
+        this.recipeId = recipeId;
+    }
+    
+    public Long getRecipeId() {
+        return recipeId;
+    }
+}
@@ -0,0 +1,391 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.MealPlan;
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks a set of recipes that together use as many pantry ingredients as
+ * possible while needing as few other ingredients as possible. A plan scores
+ * one point for every distinct pantry ingredient it uses and loses one for
+ * every distinct ingredient that has to be bought.
+ *
+ * Candidate recipes are encoded as bit masks over the ingredients they use,
+ * matched to the pantry by ingredient id (see IngredientKeys), and sorted by
+ * how many pantry ingredients each covers, so an upper bound for any partial
+ * plan is its current score plus the pantry counts of the next best
+ * remaining recipes. The branch-and-bound search forks one task per first
+ * recipe onto the common fork/join pool and shares the best plan found so
+ * far between tasks, so every task prunes against it. A greedy plan seeds
+ * the search, and when the deadline passes the best plan found by then is
+ * returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class MealPlanner {
+
+    public static final int MAX_PLAN_SIZE = 10;
+
+    public static final long DEFAULT_DEADLINE_MILLIS = 2_000;
+
+    public static final long MAX_DEADLINE_MILLIS = 10_000;
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1024; // plans examined between clock reads
+
+    private final RecipeRepository recipeRepository;
+    private final UserPantryService userPantryService;
+
+    /**
+     * Plan up to size recipes, optionally limited to a cuisine and a maximum
+     * total time per recipe, returning within roughly deadlineMillis
+     */
+    @Transactional(readOnly = true)
+    public MealPlan plan(Long userId, int size, String cuisineType, Integer maxMinutes, long deadlineMillis) {
+        return plan(userId, size, cuisineType, maxMinutes, deadlineMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plan as above, searching on the given pool
+     */
+    MealPlan plan(Long userId, int size, String cuisineType, Integer maxMinutes, long deadlineMillis,
+                  ForkJoinPool pool) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+
+        List<Ingredient> pantry = userPantryService.getPantryIngredients(userId);
+        List<Recipe> candidates = new ArrayList<>();
+        for (Recipe recipe : recipeRepository.findAll()) {
+            if ((cuisineType == null || cuisineType.equalsIgnoreCase(recipe.getCuisineType()))
+                    && (maxMinutes == null || (recipe.getTotalTime() != null && recipe.getTotalTime() <= maxMinutes))) {
+                candidates.add(recipe);
+            }
+        }
+
+        Problem problem = Problem.encode(candidates, pantry, Math.min(size, candidates.size()), deadline);
+        if (problem.size > 0) {
+            problem.seedGreedy();
+            pool.invoke(new Root(problem));
+        }
+
+        Incumbent best = problem.best.get();
+        List<Long> recipeIds = new ArrayList<>();
+        long[] union = new long[problem.pantry.length];
+        for (int candidate : best.chosen) {
+            recipeIds.add(problem.recipeIds[candidate]);
+            or(union, problem.masks[candidate]);
+        }
+        List<String> toBuy = new ArrayList<>();
+        int used = 0;
+        for (int ingredient = nextSetBit(union, 0); ingredient >= 0; ingredient = nextSetBit(union, ingredient + 1)) {
+            if (isSet(problem.pantry, ingredient)) {
+                used++;
+            } else {
+                toBuy.add(problem.ingredientNames.get(ingredient));
+            }
+        }
+        toBuy.sort(String.CASE_INSENSITIVE_ORDER);
+
+        List<RecipeSummary> recipes = recipeIds.isEmpty() ? List.of() : recipeRepository.findSummariesByIdIn(recipeIds);
+        return new MealPlan(recipes, used, toBuy, !problem.timedOut, problem.examined.sum(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Immutable int-encoded search input plus the state shared by all search tasks
+     */
+    private static final class Problem {
+
+        final int size;
+        final Long[] recipeIds;
+        final long[][] masks;     // per candidate, bit i set if it uses ingredient i
+        final long[] pantry;      // bit i set if ingredient i is in the pantry
+        final int[] pantryPrefix; // pantryPrefix[i] = sum of pantry counts of candidates before i
+        final List<String> ingredientNames;
+        final long deadline;
+
+        final AtomicReference<Incumbent> best = new AtomicReference<>(new Incumbent(Integer.MIN_VALUE, new int[0]));
+        final LongAdder examined = new LongAdder();
+        volatile boolean timedOut;
+
+        private Problem(int size, Long[] recipeIds, long[][] masks, long[] pantry, int[] pantryPrefix,
+                        List<String> ingredientNames, long deadline) {
+            this.size = size;
+            this.recipeIds = recipeIds;
+            this.masks = masks;
+            this.pantry = pantry;
+            this.pantryPrefix = pantryPrefix;
+            this.ingredientNames = ingredientNames;
+            this.deadline = deadline;
+        }
+
+        static Problem encode(List<Recipe> recipes, List<Ingredient> pantryIngredients, int size, long deadline) {
+            IngredientKeys keys = new IngredientKeys();
+            Map<Long, Integer> ingredientIndex = new HashMap<>();
+            List<String> ingredientNames = new ArrayList<>();
+            List<int[]> ingredientsPerRecipe = new ArrayList<>(recipes.size());
+            for (Recipe recipe : recipes) {
+                int[] ingredients = new int[recipe.getIngredients().size()];
+                int count = 0;
+                for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                    Long key = keys.keyOf(ingredient);
+                    if (key != null) {
+                        ingredients[count++] = ingredientIndex.computeIfAbsent(key, k -> {
+                            ingredientNames.add(ingredient.getIngredientName().strip());
+                            return ingredientNames.size() - 1;
+                        });
+                    }
+                }
+                ingredientsPerRecipe.add(Arrays.copyOf(ingredients, count));
+            }
+
+            Set<Long> pantryKeys = new HashSet<>();
+            for (Ingredient ingredient : pantryIngredients) {
+                keys.addKeysOf(ingredient, pantryKeys);
+            }
+
+            int words = (ingredientNames.size() + 63) / 64;
+            long[] pantry = new long[words];
+            ingredientIndex.forEach((key, index) -> {
+                if (pantryKeys.contains(key)) {
+                    pantry[index >>> 6] |= 1L << index;
+                }
+            });
+
+            int n = recipes.size();
+            long[][] masks = new long[n][words];
+            int[] pantryCounts = new int[n];
+            Integer[] order = new Integer[n];
+            for (int r = 0; r < n; r++) {
+                for (int ingredient : ingredientsPerRecipe.get(r)) {
+                    masks[r][ingredient >>> 6] |= 1L << ingredient;
+                }
+                pantryCounts[r] = andCount(masks[r], pantry);
+                order[r] = r;
+            }
+            // Most pantry ingredients first, so the bound is a prefix sum and shrinks as the index grows
+            Arrays.sort(order, Comparator.<Integer>comparingInt(r -> -pantryCounts[r])
+                    .thenComparingInt(r -> count(masks[r]))
+                    .thenComparing(r -> recipes.get(r).getId()));
+
+            Long[] recipeIds = new Long[n];
+            long[][] sortedMasks = new long[n][];
+            int[] pantryPrefix = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                recipeIds[i] = recipes.get(order[i]).getId();
+                sortedMasks[i] = masks[order[i]];
+                pantryPrefix[i + 1] = pantryPrefix[i] + pantryCounts[order[i]];
+            }
+            return new Problem(size, recipeIds, sortedMasks, pantry, pantryPrefix, ingredientNames, deadline);
+        }
+
+        /**
+         * Best possible score of a plan extending one with the given score by
+         * picking the remaining recipes from candidates start onwards
+         */
+        int bound(int score, int start, int remaining) {
+            return score + pantryPrefix[start + remaining] - pantryPrefix[start];
+        }
+
+        int score(long[] union) {
+            int used = andCount(union, pantry);
+            return used - (count(union) - used);
+        }
+
+        void offer(int score, int[] chosen) {
+            Incumbent current = best.get();
+            while (score > current.score) {
+                if (best.compareAndSet(current, new Incumbent(score, chosen.clone()))) {
+                    return;
+                }
+                current = best.get();
+            }
+        }
+
+        /**
+         * Start from the plan built by repeatedly adding the recipe that raises the score most
+         */
+        void seedGreedy() {
+            int[] chosen = new int[size];
+            boolean[] taken = new boolean[masks.length];
+            long[] union = new long[pantry.length];
+            long[] trial = new long[pantry.length];
+            int score = 0;
+            for (int depth = 0; depth < size; depth++) {
+                int pick = -1;
+                int pickScore = Integer.MIN_VALUE;
+                for (int candidate = 0; candidate < masks.length; candidate++) {
+                    if (taken[candidate]) {
+                        continue;
+                    }
+                    System.arraycopy(union, 0, trial, 0, union.length);
+                    or(trial, masks[candidate]);
+                    int trialScore = score(trial);
+                    if (trialScore > pickScore) {
+                        pick = candidate;
+                        pickScore = trialScore;
+                    }
+                }
+                taken[pick] = true;
+                chosen[depth] = pick;
+                or(union, masks[pick]);
+                score = pickScore;
+            }
+            Arrays.sort(chosen);
+            offer(score, chosen);
+        }
+    }
+
+    private record Incumbent(int score, int[] chosen) {
+    }
+
+    /**
+     * Forks one search task for each candidate that can start a plan
+     */
+    @SuppressWarnings("serial") // search tasks are never serialized
+    private static final class Root extends RecursiveAction {
+
+        private final Problem problem;
+
+        Root(Problem problem) {
+            this.problem = problem;
+        }
+
+        @Override
+        protected void compute() {
+            List<Branch> branches = new ArrayList<>();
+            for (int first = 0; first + problem.size <= problem.masks.length; first++) {
+                branches.add(new Branch(problem, first));
+            }
+            invokeAll(branches);
+        }
+    }
+
+    /**
+     * Depth-first search over all plans whose lowest-index recipe is first.
+     * Each depth has its own union array, so the search allocates nothing per plan.
+     */
+    @SuppressWarnings("serial")
+    private static final class Branch extends RecursiveAction {
+
+        private final Problem problem;
+        private final int first;
+        private final int[] chosen;
+        private final long[][] unions;
+        private long examined;
+
+        Branch(Problem problem, int first) {
+            this.problem = problem;
+            this.first = first;
+            this.chosen = new int[problem.size];
+            this.unions = new long[problem.size][problem.pantry.length];
+        }
+
+        @Override
+        protected void compute() {
+            if (problem.timedOut || problem.bound(0, first, problem.size) <= problem.best.get().score) {
+                return;
+            }
+            chosen[0] = first;
+            System.arraycopy(problem.masks[first], 0, unions[0], 0, unions[0].length);
+            if (problem.size == 1) {
+                problem.offer(problem.score(unions[0]), chosen);
+            } else {
+                search(1, first + 1);
+            }
+            problem.examined.add(examined + 1);
+        }
+
+        private void search(int depth, int start) {
+            long[] parent = unions[depth - 1];
+            long[] union = unions[depth];
+            int parentScore = problem.score(parent);
+            int remaining = problem.size - depth;
+            for (int candidate = start; candidate + remaining <= problem.masks.length; candidate++) {
+                // Candidates are sorted by pantry count, so once the bound fails it fails for the rest
+                if (problem.bound(parentScore, candidate, remaining) <= problem.best.get().score || outOfTime()) {
+                    return;
+                }
+                long[] mask = problem.masks[candidate];
+                for (int w = 0; w < union.length; w++) {
+                    union[w] = parent[w] | mask[w];
+                }
+                chosen[depth] = candidate;
+                if (remaining == 1) {
+                    problem.offer(problem.score(union), chosen);
+                } else {
+                    search(depth + 1, candidate + 1);
+                }
+            }
+        }
+
+        private boolean outOfTime() {
+            if (++examined % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - problem.deadline > 0) {
+                problem.timedOut = true;
+            }
+            return problem.timedOut;
+        }
+    }
+
+    private static void or(long[] target, long[] mask) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] |= mask[w];
+        }
+    }
+
+    private static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static int andCount(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return w * 64 + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+}
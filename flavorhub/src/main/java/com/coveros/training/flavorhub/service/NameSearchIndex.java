@@ -0,0 +1,70 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Trigram indexes over recipe and ingredient names, used by the search
+ * endpoints so that a keystroke does not turn into a LIKE '%term%' table scan
+ */
+@Component
+@RequiredArgsConstructor
+public class NameSearchIndex {
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientRepository ingredientRepository;
+
+    private final TrigramIndex recipeNames = new TrigramIndex();
+    private final TrigramIndex ingredientNames = new TrigramIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        recipeNames.clear();
+        for (Recipe recipe : recipeRepository.findAll()) {
+            recipeNames.put(recipe.getId(), recipe.getName());
+        }
+        ingredientNames.clear();
+        for (Ingredient ingredient : ingredientRepository.findAll()) {
+            ingredientNames.put(ingredient.getId(), ingredient.getName());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isDeleted()) {
+            recipeNames.remove(event.getRecipeId());
+        } else {
+            recipeNames.put(event.getRecipeId(), event.getRecipe().getName());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        if (event.isDeleted()) {
+            ingredientNames.remove(event.getIngredientId());
+        } else {
+            ingredientNames.put(event.getIngredientId(), event.getIngredient().getName());
+        }
+    }
+
+    public List<Long> searchRecipeIds(String searchTerm) {
+        return recipeNames.search(searchTerm);
+    }
+
+    public List<Long> searchIngredientIds(String searchTerm) {
+        return ingredientNames.search(searchTerm);
+    }
+}
@@ -0,0 +1,264 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.IngredientChangedEvent;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of each user's pantry items, with their ingredients.
+ *
+ * Users are spread over a fixed number of segments, each with its own lock
+ * and its own access-ordered map, so requests for users in different segments
+ * never contend. A segment holds at most its share of maximum-users and drops
+ * its least recently used user when full; users not read for idle-timeout are
+ * dropped by a background sweep. Loads run outside the segment lock, and a
+ * load is only stored if no invalidation reached its segment meanwhile, so a
+ * slow read can never put back a pantry that was changed while it ran.
+ *
+ * The cached lists and entities are shared between requests and must be
+ * treated as read-only.
+ */
+@Component
+public class PantryCache {
+
+    private static final int SEGMENTS = 64; // a power of two
+
+    private static final long SWEEP_SECONDS = 60;
+
+    private final UserPantryRepository userPantryRepository;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long idleNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pantry-cache-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PantryCache(UserPantryRepository userPantryRepository,
+                       @Value("${flavorhub.pantry-cache.maximum-users}") int maximumUsers,
+                       @Value("${flavorhub.pantry-cache.idle-timeout}") Duration idleTimeout) {
+        this.userPantryRepository = userPantryRepository;
+        this.idleNanos = idleTimeout.toNanos();
+        int capacity = Math.max(1, (maximumUsers + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A user's pantry items with their ingredients, in id order. Only reads in
+     * a read-only transaction (or none) are stored, so a caller's own
+     * uncommitted writes never reach the cache.
+     */
+    public List<UserPantry> get(Long userId) {
+        Segment segment = segmentFor(userId);
+        long generation;
+        segment.lock.lock();
+        try {
+            Entry entry = segment.entries.get(userId);
+            if (entry != null) {
+                entry.lastAccess = System.nanoTime();
+                hits.increment();
+                return entry.items;
+            }
+            generation = segment.generation;
+        } finally {
+            segment.lock.unlock();
+        }
+
+        misses.increment();
+        List<UserPantry> items = load(userId);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            segment.lock.lock();
+            try {
+                if (segment.generation == generation) {
+                    segment.entries.put(userId, new Entry(items, System.nanoTime()));
+                    puts.increment();
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Drop one user's pantry; the next read loads it again
+     */
+    public void invalidate(Long userId) {
+        Segment segment = segmentFor(userId);
+        segment.lock.lock();
+        try {
+            segment.generation++;
+            if (segment.entries.remove(userId) != null) {
+                removals.increment();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.generation++;
+                removals.add(segment.entries.size());
+                segment.entries.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The sample data is written straight through the repository, so drop
+     * anything read while it was still loading
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPantryChanged(PantryChangedEvent event) {
+        invalidate(event.getUserId());
+    }
+
+    /**
+     * Cached pantries hold ingredient names and units, so any ingredient change clears them all
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(IngredientChangedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Hit, miss and eviction counts since startup, named like the JCache
+     * statistics of the second-level cache regions
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.entries.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("CacheHits", hitCount);
+        values.put("CacheMisses", missCount);
+        values.put("CacheHitPercentage", requests == 0 ? 0f : (float) (hitCount * 100.0 / requests));
+        values.put("CachePuts", puts.sum());
+        values.put("CacheRemovals", removals.sum());
+        values.put("CacheEvictions", sizeEvictions.sum() + idleEvictions.sum());
+        values.put("SizeEvictions", sizeEvictions.sum());
+        values.put("IdleEvictions", idleEvictions.sum());
+        values.put("CacheSize", size);
+        return values;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private List<UserPantry> load(Long userId) {
+        List<UserPantry> items = new ArrayList<>(userPantryRepository.findWithIngredientByUserId(userId));
+        items.sort(Comparator.comparing(UserPantry::getId));
+        return Collections.unmodifiableList(items);
+    }
+
+    private Segment segmentFor(Long userId) {
+        int hash = userId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    /**
+     * Drop users that have not been read for the idle timeout. Entries are in
+     * access order, so each segment is only scanned up to its first live entry.
+     */
+    private void sweep() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                long now = System.nanoTime();
+                Iterator<Entry> iterator = segment.entries.values().iterator();
+                while (iterator.hasNext() && now - iterator.next().lastAccess >= idleNanos) {
+                    iterator.remove();
+                    idleEvictions.increment();
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final List<UserPantry> items;
+        private long lastAccess; // guarded by the segment lock
+
+        Entry(List<UserPantry> items, long lastAccess) {
+            this.items = items;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Entry> entries;
+        private long generation; // bumped by every invalidation; guarded by lock
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() > capacity) {
+                        sizeEvictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeVersion;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders recipe cards for the server-side recipes page and caches the HTML
+ * of each card by recipe id and version.
+ *
+ * A page render reads only the ids and versions of the page, concatenates
+ * the cached cards that are still current, and loads and renders just the
+ * recipes that are missing or have a newer version. Cards are also dropped
+ * as soon as a recipe is saved or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeCardRenderer {
+    
+    private static final String CARD_TEMPLATE = "fragments/recipe-card";
+    
+    private final RecipeRepository recipeRepository;
+    private final ITemplateEngine templateEngine;
+    
+    private final Map<Long, RenderedCard> cards = new ConcurrentHashMap<>();
+    
+    /**
+     * Render up to limit recipe cards after the given id, in id order
+     */
+    @Transactional(readOnly = true)
+    public RenderedPage renderPage(long afterId, int limit) {
+        List<RecipeVersion> page = recipeRepository.findVersionsAfter(afterId, Limit.of(limit + 1));
+        boolean more = page.size() > limit;
+        if (more) {
+            page = page.subList(0, limit);
+        }
+        
+        List<Long> stale = new ArrayList<>();
+        for (RecipeVersion entry : page) {
+            RenderedCard card = cards.get(entry.getId());
+            if (card == null || !card.version().equals(entry.getVersion())) {
+                stale.add(entry.getId());
+            }
+        }
+        if (!stale.isEmpty()) {
+            for (Recipe recipe : recipeRepository.findAllById(stale)) {
+                cards.put(recipe.getId(), new RenderedCard(recipe.getVersion(), render(recipe)));
+            }
+        }
+        
+        StringBuilder html = new StringBuilder();
+        for (RecipeVersion entry : page) {
+            RenderedCard card = cards.get(entry.getId());
+            if (card != null) {
+                html.append(card.html());
+            }
+        }
+        Long nextAfterId = more ? page.get(page.size() - 1).getId() : null;
+        return new RenderedPage(html.toString(), nextAfterId);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        cards.remove(event.getRecipeId());
+    }
+    
+    private String render(Recipe recipe) {
+        Context context = new Context();
+        context.setVariable("recipe", recipe);
+        return templateEngine.process(CARD_TEMPLATE, context);
+    }
+    
+    /**
+     * Concatenated card HTML for a page, and the id to continue after (null on the last page)
+     */
+    public record RenderedPage(String html, Long nextAfterId) {
+    }
+    
+    private record RenderedCard(Long version, String html) {
+    }
+}
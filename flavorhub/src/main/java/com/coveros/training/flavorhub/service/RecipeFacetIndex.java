@@ -0,0 +1,347 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * In-memory faceted filtering over recipes.
+ *
+ * Every value of every facet dimension (difficulty, cuisine, total-time bucket
+ * and ingredient) keeps a BitSet of recipe slots. A filter is an OR of the
+ * selected values within a dimension and an AND across dimensions, and the
+ * count for each facet value is taken with every filter applied except the
+ * one on its own dimension, so clients can show how many results each
+ * alternative choice would give.
+ *
+ * The ingredient dimension is keyed by ingredient id (see IngredientKeys for
+ * rows not resolved yet), and filter values are resolved to ids with
+ * IngredientNameResolver, so "tomato" also selects "Tomatoes (Canned)". A
+ * value that resolves to an id also selects the unresolved rows with its
+ * name, and counts are merged per label, so an ingredient only partly
+ * resolved is still one facet value.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeFacetIndex {
+
+    public static final String DIFFICULTY = "difficulty";
+    public static final String CUISINE = "cuisine";
+    public static final String TIME = "time";
+    public static final String INGREDIENT = "ingredient";
+
+    private static final List<String> DIMENSIONS = List.of(DIFFICULTY, CUISINE, TIME, INGREDIENT);
+
+    private static final int MAX_VALUES_PER_FACET = 20;
+
+    private final RecipeRepository recipeRepository;
+    private final IngredientNameResolver ingredientNameResolver;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Dimension> dimensions = new LinkedHashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slotsByRecipeId = new HashMap<>();
+    private final List<IndexedRecipe> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final IngredientKeys ingredientKeys = new IngredientKeys();
+
+    {
+        dimensions.put(DIFFICULTY, new Dimension(value -> List.of(key(value))));
+        dimensions.put(CUISINE, new Dimension(value -> List.of(key(value))));
+        dimensions.put(TIME, new Dimension(value -> List.of(key(value))));
+        dimensions.put(INGREDIENT, new Dimension(this::ingredientKeys));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            dimensions.values().forEach(Dimension::clear);
+            live.clear();
+            slotsByRecipeId.clear();
+            slots.clear();
+            freeSlots.clear();
+            ingredientKeys.clear();
+            for (Recipe recipe : recipeRepository.findAll()) {
+                add(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getRecipeId());
+            if (!event.isDeleted()) {
+                add(event.getRecipe());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the recipes matching the filters along with facet counts.
+     *
+     * @param filters selected values per dimension; values are matched ignoring case
+     * @param limit   maximum number of recipe ids to return, lowest ids first
+     */
+    public FacetMatch search(Map<String, ? extends Collection<String>> filters, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selected = select(filters);
+            BitSet matches = intersectAll(selected, null);
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String name : DIMENSIONS) {
+                BitSet base = selected.containsKey(name) ? intersectAll(selected, name) : matches;
+                facets.put(name, dimensions.get(name).counts(base));
+            }
+
+            List<Long> ids = recipeIds(matches);
+            return new FacetMatch(ids.size(), new ArrayList<>(ids.subList(0, Math.min(limit, ids.size()))), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the recipes carrying a value of one dimension, lowest first,
+     * without the facet counts search computes
+     */
+    public List<Long> matching(String dimension, String value) {
+        lock.readLock().lock();
+        try {
+            return recipeIds(select(Map.of(dimension, List.of(value))).getOrDefault(dimension, new BitSet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Time bucket label for a total time in minutes
+     */
+    public static String timeBucket(int totalMinutes) {
+        if (totalMinutes <= 15) {
+            return "0-15";
+        } else if (totalMinutes <= 30) {
+            return "16-30";
+        } else if (totalMinutes <= 60) {
+            return "31-60";
+        }
+        return "60+";
+    }
+
+    private Map<String, BitSet> select(Map<String, ? extends Collection<String>> filters) {
+        Map<String, BitSet> selected = new HashMap<>();
+        for (String name : DIMENSIONS) {
+            Collection<String> values = filters.get(name);
+            if (values != null && !values.isEmpty()) {
+                selected.put(name, dimensions.get(name).union(values));
+            }
+        }
+        return selected;
+    }
+
+    private List<Long> recipeIds(BitSet matches) {
+        List<Long> ids = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            ids.add(slots.get(slot).id);
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    private BitSet intersectAll(Map<String, BitSet> selected, String excludedDimension) {
+        BitSet result = (BitSet) live.clone();
+        for (Map.Entry<String, BitSet> entry : selected.entrySet()) {
+            if (!entry.getKey().equals(excludedDimension)) {
+                result.and(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private void add(Recipe recipe) {
+        Map<String, Map<Object, String>> values = new HashMap<>();
+        putValue(values, DIFFICULTY, recipe.getDifficultyLevel());
+        putValue(values, CUISINE, recipe.getCuisineType());
+        int prep = recipe.getPrepTime() == null ? 0 : recipe.getPrepTime();
+        int cook = recipe.getCookTime() == null ? 0 : recipe.getCookTime();
+        putValue(values, TIME, timeBucket(prep + cook));
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            Long key = ingredientKeys.keyOf(ingredient);
+            if (key != null) {
+                values.computeIfAbsent(INGREDIENT, d -> new LinkedHashMap<>())
+                        .putIfAbsent(key, ingredient.getIngredientName().trim());
+            }
+        }
+
+        int slot = freeSlots.isEmpty() ? slots.size() : freeSlots.pop();
+        IndexedRecipe indexed = new IndexedRecipe(recipe.getId(), values);
+        if (slot == slots.size()) {
+            slots.add(indexed);
+        } else {
+            slots.set(slot, indexed);
+        }
+        slotsByRecipeId.put(recipe.getId(), slot);
+        live.set(slot);
+        values.forEach((name, labels) -> labels.forEach((key, label) -> dimensions.get(name).set(key, label, slot)));
+    }
+
+    private void remove(Long recipeId) {
+        Integer slot = slotsByRecipeId.remove(recipeId);
+        if (slot == null) {
+            return;
+        }
+        slots.get(slot).values.forEach((name, labels) ->
+                labels.keySet().forEach(key -> dimensions.get(name).clear(key, slot)));
+        live.clear(slot);
+        slots.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    private static void putValue(Map<String, Map<Object, String>> values, String dimension, String value) {
+        if (value != null && !value.isBlank()) {
+            values.computeIfAbsent(dimension, d -> new LinkedHashMap<>()).putIfAbsent(key(value), value.trim());
+        }
+    }
+
+    private static Object key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keys of an ingredient filter value: the id it resolves to and the key
+     * of unresolved rows with that name. Called under the read lock.
+     */
+    private List<Object> ingredientKeys(String value) {
+        List<Object> keys = new ArrayList<>(2);
+        Long id = ingredientNameResolver.resolve(value);
+        if (id != null) {
+            keys.add(id);
+        }
+        Long unresolved = ingredientKeys.unresolvedKey(value);
+        if (unresolved != null) {
+            keys.add(unresolved);
+        }
+        return keys;
+    }
+
+    /**
+     * Bitmaps for the values of one facet dimension, reported with the
+     * spelling they were first indexed under. Filter values are turned into
+     * keys with filterKeys: case-insensitive text, or ingredient ids.
+     */
+    private static class Dimension {
+
+        private final Function<String, List<Object>> filterKeys;
+        private final Map<Object, BitSet> bitmaps = new HashMap<>();
+        private final Map<Object, String> labels = new HashMap<>();
+
+        Dimension(Function<String, List<Object>> filterKeys) {
+            this.filterKeys = filterKeys;
+        }
+
+        void set(Object key, String label, int slot) {
+            labels.putIfAbsent(key, label);
+            bitmaps.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        }
+
+        void clear(Object key, int slot) {
+            BitSet bitmap = bitmaps.get(key);
+            if (bitmap == null) {
+                return;
+            }
+            bitmap.clear(slot);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+                labels.remove(key);
+            }
+        }
+
+        void clear() {
+            bitmaps.clear();
+            labels.clear();
+        }
+
+        BitSet union(Collection<String> values) {
+            BitSet result = new BitSet();
+            for (String value : values) {
+                for (Object key : filterKeys.apply(value)) {
+                    BitSet bitmap = bitmaps.get(key);
+                    if (bitmap != null) {
+                        result.or(bitmap);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Count how many slots of base carry each value, keeping the largest
+         * counts. Keys sharing a label (an ingredient id and the unresolved
+         * rows of the same name) are counted together, each slot once.
+         */
+        Map<String, Integer> counts(BitSet base) {
+            Map<String, BitSet> byLabel = new HashMap<>();
+            for (Map.Entry<Object, BitSet> entry : bitmaps.entrySet()) {
+                BitSet bitmap = entry.getValue();
+                if (bitmap.intersects(base)) {
+                    BitSet both = (BitSet) bitmap.clone();
+                    both.and(base);
+                    byLabel.merge(labels.get(entry.getKey()), both, (a, b) -> {
+                        a.or(b);
+                        return a;
+                    });
+                }
+            }
+            List<Map.Entry<String, Integer>> counts = new ArrayList<>(byLabel.size());
+            byLabel.forEach((label, slots) -> counts.add(Map.entry(label, slots.cardinality())));
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> count : counts.subList(0, Math.min(MAX_VALUES_PER_FACET, counts.size()))) {
+                result.put(count.getKey(), count.getValue());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Result of a facet search: total matches, the first page of matching ids
+     * and the value counts for each dimension
+     */
+    public record FacetMatch(int total, List<Long> recipeIds, Map<String, Map<String, Integer>> facets) {
+    }
+
+    private record IndexedRecipe(Long id, Map<String, Map<Object, String>> values) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeRecommendation;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from ingredient to the recipes that use it, keyed
+ * by ingredient id (see IngredientKeys for rows not resolved yet).
+ *
+ * Each recipe is assigned a dense slot number and every ingredient keeps a
+ * BitSet posting list of slots, so a recommendation only walks the postings
+ * of the ingredients in the pantry instead of loading the whole catalog.
+ * The index is built once at startup and kept current from RecipeChangedEvent.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeRecommendationIndex {
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BitSet> postings = new HashMap<>();
+    private final IngredientKeys ingredientKeys = new IngredientKeys();
+    private final Map<Long, Integer> slotsByRecipeId = new HashMap<>();
+    private final List<IndexedRecipe> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    /**
+     * Load every recipe into the index once the sample data has been loaded
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slotsByRecipeId.clear();
+            slots.clear();
+            freeSlots.clear();
+            ingredientKeys.clear();
+            for (Recipe recipe : recipeRepository.findAll()) {
+                add(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.getRecipeId());
+            if (!event.isDeleted()) {
+                add(event.getRecipe());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank recipes by the fraction of their ingredients among the given
+     * ingredients, breaking ties on the number of missing ingredients
+     */
+    public List<RecipeRecommendation> recommend(Collection<Ingredient> availableIngredients, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<Long> keys = new HashSet<>();
+            for (Ingredient ingredient : availableIngredients) {
+                ingredientKeys.addKeysOf(ingredient, keys);
+            }
+
+            int[] matched = new int[slots.size()];
+            BitSet candidates = new BitSet(slots.size());
+            for (Long key : keys) {
+                BitSet posting = postings.get(key);
+                if (posting == null) {
+                    continue;
+                }
+                for (int slot = posting.nextSetBit(0); slot >= 0; slot = posting.nextSetBit(slot + 1)) {
+                    matched[slot]++;
+                }
+                candidates.or(posting);
+            }
+
+            PriorityQueue<RecipeRecommendation> best = new PriorityQueue<>(RANKING.reversed());
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                IndexedRecipe recipe = slots.get(slot);
+                int total = recipe.ingredientKeys.length;
+                best.add(new RecipeRecommendation(recipe.id, recipe.name, matched[slot], total,
+                        total - matched[slot], (double) matched[slot] / total));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<RecipeRecommendation> result = new ArrayList<>(best);
+            result.sort(RANKING);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final Comparator<RecipeRecommendation> RANKING = Comparator
+            .comparingDouble(RecipeRecommendation::getCoverage).reversed()
+            .thenComparingInt(RecipeRecommendation::getMissingIngredients)
+            .thenComparing(RecipeRecommendation::getRecipeId);
+
+    private void add(Recipe recipe) {
+        Set<Long> keys = new LinkedHashSet<>();
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            Long key = ingredientKeys.keyOf(ingredient);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        int slot;
+        long[] keyArray = keys.stream().mapToLong(Long::longValue).toArray();
+        IndexedRecipe indexed = new IndexedRecipe(recipe.getId(), recipe.getName(), keyArray);
+        if (freeSlots.isEmpty()) {
+            slot = slots.size();
+            slots.add(indexed);
+        } else {
+            slot = freeSlots.pop();
+            slots.set(slot, indexed);
+        }
+        slotsByRecipeId.put(recipe.getId(), slot);
+        for (Long key : keys) {
+            postings.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        }
+    }
+
+    private void remove(Long recipeId) {
+        Integer slot = slotsByRecipeId.remove(recipeId);
+        if (slot == null) {
+            return;
+        }
+        for (long key : slots.get(slot).ingredientKeys) {
+            BitSet posting = postings.get(key);
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+        slots.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    private record IndexedRecipe(Long id, String name, long[] ingredientKeys) {
+    }
+}
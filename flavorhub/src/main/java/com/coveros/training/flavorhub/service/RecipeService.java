@@ -1,13 +1,34 @@
 package com.coveros.training.flavorhub.service;
 
+import com.coveros.training.flavorhub.dto.BulkImportResult;
+import com.coveros.training.flavorhub.dto.FacetedSearchResult;
+import com.coveros.training.flavorhub.dto.FullTextHit;
+import com.coveros.training.flavorhub.dto.RecipeRecommendation;
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.dto.SimilarRecipe;
+import com.coveros.training.flavorhub.event.EntityChangedEvent;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
 import com.coveros.training.flavorhub.model.Recipe;
 import com.coveros.training.flavorhub.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing recipes
@@ -17,46 +38,275 @@ import java.util.Optional;
 @Transactional
 public class RecipeService {
     
+    private static final int IMPORT_CHUNK_SIZE = 50; // matches hibernate.jdbc.batch_size
+    
+    private static final int MAX_HIGHLIGHTS = 3;
+    
     private final RecipeRepository recipeRepository;
+    private final UserPantryService userPantryService;
+    private final RecipeRecommendationIndex recommendationIndex;
+    private final NameSearchIndex nameSearchIndex;
+    private final RecipeFacetIndex facetIndex;
+    private final RecipeSimilarityIndex similarityIndex;
+    private final FullTextIndex fullTextIndex;
+    private final IngredientNameResolver ingredientNameResolver;
+    private final SyncService syncService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
     
+    @Transactional(readOnly = true)
     public List<Recipe> getAllRecipes() {
-        return recipeRepository.findAll();
+        return initializeCollections(recipeRepository.findAll());
+    }
+    
+    /**
+     * Get up to limit recipes with ids greater than afterId, in id order
+     */
+    @Transactional(readOnly = true)
+    public List<Recipe> getRecipesAfter(long afterId, int limit) {
+        return initializeCollections(recipeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit)));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<RecipeSummary> getRecipeSummariesAfter(long afterId, int limit) {
+        return recipeRepository.findSummariesAfter(afterId, Limit.of(limit));
     }
     
     public Optional<Recipe> getRecipeById(Long id) {
         return recipeRepository.findById(id);
     }
     
+    @Transactional(readOnly = true)
+    public Optional<Long> getRecipeVersion(Long id) {
+        return recipeRepository.findVersionById(id);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Recipe> getRecipesByDifficulty(String difficultyLevel) {
-        return recipeRepository.findByDifficultyLevel(difficultyLevel);
+        return getRecipesByFacet(RecipeFacetIndex.DIFFICULTY, difficultyLevel);
     }
     
+    @Transactional(readOnly = true)
     public List<Recipe> getRecipesByCuisine(String cuisineType) {
-        return recipeRepository.findByCuisineType(cuisineType);
+        return getRecipesByFacet(RecipeFacetIndex.CUISINE, cuisineType);
+    }
+    
+    /**
+     * Find recipes that use an ingredient, matched on the ingredient id each
+     * recipe ingredient was resolved to when it was saved
+     */
+    @Transactional(readOnly = true)
+    public List<Recipe> getRecipesByIngredient(Long ingredientId) {
+        return initializeCollections(recipeRepository.findByIngredientId(ingredientId));
     }
     
+    private List<Recipe> getRecipesByFacet(String dimension, String value) {
+        List<Long> ids = facetIndex.matching(dimension, value);
+        List<Recipe> recipes = recipeRepository.findAllById(ids);
+        recipes.sort(Comparator.comparing(Recipe::getId));
+        return initializeCollections(recipes);
+    }
+    
+    /**
+     * Find recipes that take at most maxMinutes in total, optionally restricted
+     * to a cuisine and/or difficulty, quickest first
+     */
+    @Transactional(readOnly = true)
+    public List<Recipe> getQuickRecipes(int maxMinutes, String cuisineType, String difficultyLevel, int limit) {
+        Limit max = Limit.of(limit);
+        List<Recipe> recipes;
+        if (cuisineType != null && difficultyLevel != null) {
+            recipes = recipeRepository.findByCuisineTypeAndDifficultyLevelAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+                    cuisineType, difficultyLevel, maxMinutes, max);
+        } else if (cuisineType != null) {
+            recipes = recipeRepository.findByCuisineTypeAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+                    cuisineType, maxMinutes, max);
+        } else if (difficultyLevel != null) {
+            recipes = recipeRepository.findByDifficultyLevelAndTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(
+                    difficultyLevel, maxMinutes, max);
+        } else {
+            recipes = recipeRepository.findByTotalTimeLessThanEqualOrderByTotalTimeAscIdAsc(maxMinutes, max);
+        }
+        return initializeCollections(recipes);
+    }
+    
+    /**
+     * Search recipes by name using the in-memory trigram index, then load
+     * only the matching rows by primary key
+     */
+    @Transactional(readOnly = true)
     public List<Recipe> searchRecipes(String searchTerm) {
-        return recipeRepository.findByNameContainingIgnoreCase(searchTerm);
+        List<Recipe> recipes = recipeRepository.findAllById(nameSearchIndex.searchRecipeIds(searchTerm));
+        recipes.sort(Comparator.comparing(Recipe::getId));
+        return initializeCollections(recipes);
+    }
+    
+    /**
+     * Full-text search over names, descriptions, instructions and ingredient
+     * names, ranked by BM25, with the matching words highlighted
+     */
+    @Transactional(readOnly = true)
+    public List<FullTextHit> fullTextSearch(String query, int limit) {
+        Set<String> terms = TextAnalyzer.queryTerms(query);
+        List<FullTextIndex.Hit> hits = fullTextIndex.search(terms, limit);
+        Map<Long, Recipe> recipes = recipeRepository.findAllById(hits.stream().map(FullTextIndex.Hit::recipeId).toList())
+            .stream()
+            .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        
+        List<FullTextHit> results = new ArrayList<>(hits.size());
+        for (FullTextIndex.Hit hit : hits) {
+            Recipe recipe = recipes.get(hit.recipeId());
+            if (recipe == null) {
+                continue; // deleted since the index was searched
+            }
+            List<String> highlights = new ArrayList<>();
+            addHighlight(highlights, recipe.getName(), terms);
+            addHighlight(highlights, recipe.getDescription(), terms);
+            recipe.getIngredients().forEach(ingredient -> addHighlight(highlights, ingredient.getIngredientName(), terms));
+            recipe.getInstructions().forEach(instruction -> addHighlight(highlights, instruction, terms));
+            results.add(new FullTextHit(recipe.getId(), recipe.getName(), hit.score(), highlights));
+        }
+        return results;
+    }
+    
+    private static void addHighlight(List<String> highlights, String text, Set<String> terms) {
+        if (highlights.size() < MAX_HIGHLIGHTS) {
+            String snippet = TextAnalyzer.highlight(text, terms);
+            if (snippet != null) {
+                highlights.add(snippet);
+            }
+        }
     }
     
     public Recipe saveRecipe(Recipe recipe) {
-        return recipeRepository.save(recipe);
+        ingredientNameResolver.resolve(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.saved(saved));
+        return saved;
+    }
+    
+    /**
+     * Insert many new recipes in one transaction. Recipes are persisted in
+     * chunks of the JDBC batch size and the persistence context is flushed and
+     * cleared after each chunk, so Hibernate sends the recipe rows and both
+     * element collections as JDBC batches and memory does not grow with the
+     * size of the request.
+     */
+    public BulkImportResult importRecipes(List<Recipe> recipes) {
+        long start = System.nanoTime();
+        for (int i = 0; i < recipes.size(); i++) {
+            Recipe recipe = recipes.get(i);
+            recipe.setId(null);
+            ingredientNameResolver.resolve(recipe);
+            entityManager.persist(recipe);
+            if ((i + 1) % IMPORT_CHUNK_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        recipes.forEach(recipe -> eventPublisher.publishEvent(RecipeChangedEvent.saved(recipe)));
+        
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        return new BulkImportResult(recipes.size(), elapsedMillis, recipes.size() * 1000.0 / elapsedMillis);
     }
     
     public void deleteRecipe(Long id) {
-        recipeRepository.deleteById(id);
+        deleteRecipes(List.of(id));
+    }
+    
+    /**
+     * Delete the given recipes with their ingredients and instructions. Runs
+     * the same handful of statements however many recipes there are: one to
+     * find which ids exist, then one bulk DELETE per table. Returns the number
+     * of recipes deleted.
+     */
+    public int deleteRecipes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return deleteExisting(recipeRepository.findExistingIds(ids));
+    }
+    
+    /**
+     * Delete every recipe matching all of the given criteria; null criteria
+     * match anything, but at least one must be given
+     */
+    public int deleteRecipesMatching(String cuisineType, String difficultyLevel, Integer maxMinutes) {
+        if (cuisineType == null && difficultyLevel == null && maxMinutes == null) {
+            throw new IllegalArgumentException("At least one criterion is required");
+        }
+        return deleteExisting(recipeRepository.findIdsMatching(cuisineType, difficultyLevel, maxMinutes));
+    }
+    
+    private int deleteExisting(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = recipeRepository.deleteAllByIdIn(ids);
+        syncService.recordDeletes("recipe", ids, null);
+        for (Long id : ids) {
+            eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
+            eventPublisher.publishEvent(new EntityChangedEvent("recipe", id, null, EntityChangedEvent.DELETE, null));
+        }
+        return deleted;
     }
     
     /**
-     * Find recipes that can be made based on available ingredients in the pantry
-     * NOTE: This method is intentionally left incomplete for workshop participants
-     * Participants will use GitHub Copilot to implement this recommendation logic
+     * Delete ingredient and instruction rows left behind by recipes that no
+     * longer exist, one statement per table. Returns the rows deleted per table.
      */
-    // TODO: Implement method to recommend recipes based on pantry ingredients
+    public Map<String, Integer> purgeOrphanedRecipeRows() {
+        Map<String, Integer> purged = new LinkedHashMap<>();
+        purged.put("recipe_ingredients", recipeRepository.deleteOrphanedIngredients());
+        purged.put("recipe_instructions", recipeRepository.deleteOrphanedInstructions());
+        return purged;
+    }
+    
+    /**
+     * Load the ingredient and instruction collections while the transaction is
+     * still open, so Hibernate batches them (see @BatchSize on Recipe) instead
+     * of issuing one query per recipe during JSON serialization
+     */
+    private List<Recipe> initializeCollections(List<Recipe> recipes) {
+        for (Recipe recipe : recipes) {
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+        }
+        return recipes;
+    }
+    
+    /**
+     * Find recipes that can be made based on available ingredients in the pantry.
+     * Only the user's pantry is read from the database; the catalog side is
+     * answered from the in-memory RecipeRecommendationIndex.
+     */
+    @Transactional(readOnly = true)
+    public List<RecipeRecommendation> recommendRecipes(Long userId, int limit) {
+        List<Ingredient> pantryIngredients = userPantryService.getPantryIngredients(userId);
+        return recommendationIndex.recommend(pantryIngredients, limit);
+    }
     
     /**
-     * Get recipes that match specific dietary requirements or filters
-     * NOTE: This is a more advanced feature to be implemented during the workshop
+     * Find the recipes whose ingredient sets are most similar to the given
+     * recipe's, or empty if the recipe does not exist
      */
-    // TODO: Implement advanced filtering logic
+    public Optional<List<SimilarRecipe>> findSimilarRecipes(Long id, int limit) {
+        return similarityIndex.findSimilar(id, limit);
+    }
+    
+    /**
+     * Filter recipes by any combination of difficulty, cuisine, time bucket and
+     * ingredient. Matching and facet counts come from the in-memory
+     * RecipeFacetIndex; only the returned page of summaries is read from the database.
+     */
+    @Transactional(readOnly = true)
+    public FacetedSearchResult facetedSearch(Map<String, List<String>> filters, int limit) {
+        RecipeFacetIndex.FacetMatch match = facetIndex.search(filters, limit);
+        List<RecipeSummary> recipes = match.recipeIds().isEmpty()
+            ? List.of()
+            : recipeRepository.findSummariesByIdIn(match.recipeIds());
+        return new FacetedSearchResult(match.total(), recipes, match.facets());
+    }
 }
@@ -0,0 +1,219 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.SimilarRecipe;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds recipes with similar ingredient sets using MinHash signatures and
+ * locality-sensitive hashing.
+ *
+ * Ingredient sets hold ingredient ids (see IngredientKeys for rows not
+ * resolved yet). Each recipe's ingredient set is reduced to a signature of NUM_HASHES minimum
+ * hash values. The signature is split into BANDS bands of ROWS_PER_BAND rows,
+ * and each band is hashed into a bucket; recipes sharing any bucket become
+ * candidates, and only those candidates are scored with the exact Jaccard
+ * similarity. With 16 bands of 4 rows, pairs with a similarity of 0.5 are
+ * found with about 64% probability and pairs at 0.7 with about 98%.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeSimilarityIndex {
+
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 4;
+    private static final int NUM_HASHES = BANDS * ROWS_PER_BAND;
+    private static final long PRIME = 2_147_483_647L; // 2^31 - 1
+
+    private static final long[] HASH_A = new long[NUM_HASHES];
+    private static final long[] HASH_B = new long[NUM_HASHES];
+
+    static {
+        Random random = new Random(0x5EED_F00DL); // fixed so signatures are stable across restarts
+        for (int i = 0; i < NUM_HASHES; i++) {
+            HASH_A[i] = 1 + random.nextInt(Integer.MAX_VALUE - 1);
+            HASH_B[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+    }
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final IngredientKeys ingredientKeys = new IngredientKeys();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            buckets.clear();
+            ingredientKeys.clear();
+            for (Recipe recipe : recipeRepository.findAll()) {
+                put(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isDeleted()) {
+                removeFromBuckets(event.getRecipeId(), entries.remove(event.getRecipeId()));
+            } else {
+                put(event.getRecipe());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find up to limit recipes most similar to the given one, or empty if the
+     * recipe is not indexed
+     */
+    public Optional<List<SimilarRecipe>> findSimilar(Long recipeId, int limit) {
+        lock.readLock().lock();
+        try {
+            Entry target = entries.get(recipeId);
+            if (target == null) {
+                return Optional.empty();
+            }
+
+            Set<Long> candidates = new HashSet<>();
+            for (long bucket : target.bucketKeys) {
+                candidates.addAll(buckets.getOrDefault(bucket, Set.of()));
+            }
+            candidates.remove(recipeId);
+
+            List<SimilarRecipe> similar = new ArrayList<>(candidates.size());
+            for (Long candidateId : candidates) {
+                Entry candidate = entries.get(candidateId);
+                similar.add(new SimilarRecipe(candidateId, candidate.name,
+                        jaccard(target.ingredientKeys, candidate.ingredientKeys)));
+            }
+            similar.sort(Comparator.comparingDouble(SimilarRecipe::getSimilarity).reversed()
+                    .thenComparing(SimilarRecipe::getRecipeId));
+            return Optional.of(new ArrayList<>(similar.subList(0, Math.min(limit, similar.size()))));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index a recipe, recomputing its signature only when its ingredient set changed
+     */
+    private void put(Recipe recipe) {
+        Set<Long> keys = new HashSet<>();
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            Long key = ingredientKeys.keyOf(ingredient);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        Entry existing = entries.get(recipe.getId());
+        if (existing != null && existing.ingredientKeys.equals(keys)) {
+            entries.put(recipe.getId(), new Entry(recipe.getName(), existing.ingredientKeys, existing.bucketKeys));
+            return;
+        }
+        removeFromBuckets(recipe.getId(), existing);
+        if (keys.isEmpty()) {
+            entries.put(recipe.getId(), new Entry(recipe.getName(), keys, new long[0]));
+            return;
+        }
+
+        long[] bucketKeys = bucketKeys(signature(keys));
+        entries.put(recipe.getId(), new Entry(recipe.getName(), keys, bucketKeys));
+        for (long bucket : bucketKeys) {
+            buckets.computeIfAbsent(bucket, b -> new HashSet<>()).add(recipe.getId());
+        }
+    }
+
+    private void removeFromBuckets(Long recipeId, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        for (long bucket : entry.bucketKeys) {
+            Set<Long> members = buckets.get(bucket);
+            if (members != null) {
+                members.remove(recipeId);
+                if (members.isEmpty()) {
+                    buckets.remove(bucket);
+                }
+            }
+        }
+    }
+
+    private static int[] signature(Set<Long> ingredientKeys) {
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (Long key : ingredientKeys) {
+            long x = Long.hashCode(key) & 0xFFFFFFFFL;
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int h = (int) ((HASH_A[i] * x + HASH_B[i]) % PRIME);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * One bucket key per band: the band number in the high bits, a hash of the
+     * band's rows in the low bits
+     */
+    private static long[] bucketKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            int hash = Arrays.hashCode(Arrays.copyOfRange(signature, band * ROWS_PER_BAND, (band + 1) * ROWS_PER_BAND));
+            keys[band] = ((long) band << 32) | (hash & 0xFFFFFFFFL);
+        }
+        return keys;
+    }
+
+    private static double jaccard(Set<Long> a, Set<Long> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        Set<Long> smaller = a.size() <= b.size() ? a : b;
+        Set<Long> larger = smaller == a ? b : a;
+        int intersection = 0;
+        for (Long key : smaller) {
+            if (larger.contains(key)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private record Entry(String name, Set<Long> ingredientKeys, long[] bucketKeys) {
+    }
+}
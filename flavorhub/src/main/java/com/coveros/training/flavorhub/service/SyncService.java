@@ -0,0 +1,240 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.SyncResult;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.SyncTombstone;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.coveros.training.flavorhub.repository.SyncTombstoneRepository;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import com.coveros.training.flavorhub.model.UserPantry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Delta sync of the user's pantry and the ingredient and recipe catalog.
+ *
+ * Every write stamps the row with a ChangeSequence number, and deletes leave
+ * a tombstone with one, so a client holding a token gets back only the rows
+ * and deletions above it, read through the change_seq indexes. A delta holds
+ * at most a page of each kind of row; when there is more, its token stops at
+ * a sequence number every list is complete up to, and the client syncs again
+ * from there. Tombstones are purged after the retention period; a token older
+ * than the newest purged tombstone, or from an earlier run of the server, gets
+ * a full snapshot instead, with the catalog keyset-paged like the list
+ * endpoints.
+ */
+@Slf4j
+@Service
+@Transactional
+public class SyncService {
+
+    private static final long PURGE_MINUTES = 60;
+
+    private final ChangeSequence changeSequence;
+    private final SyncTombstoneRepository tombstoneRepository;
+    private final UserPantryRepository userPantryRepository;
+    private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final Duration retention;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile long purgedUpTo; // tokens below this have lost tombstones
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-tombstone-purger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SyncService(ChangeSequence changeSequence,
+                       SyncTombstoneRepository tombstoneRepository,
+                       UserPantryRepository userPantryRepository,
+                       IngredientRepository ingredientRepository,
+                       RecipeRepository recipeRepository,
+                       @Value("${flavorhub.sync.tombstone-retention}") Duration retention) {
+        this.changeSequence = changeSequence;
+        this.tombstoneRepository = tombstoneRepository;
+        this.userPantryRepository = userPantryRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeRepository = recipeRepository;
+        this.retention = retention;
+        purger.scheduleWithFixedDelay(this::purge, PURGE_MINUTES, PURGE_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Continue the sequence after whatever is already stored. Runs before
+     * DataLoader and before requests are served.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void seed() {
+        for (Long stored : new Long[] {ingredientRepository.findMaxChangeSeq(), recipeRepository.findMaxChangeSeq(),
+                userPantryRepository.findMaxChangeSeq(), tombstoneRepository.findMaxChangeSeq()}) {
+            if (stored != null) {
+                changeSequence.advanceTo(stored);
+            }
+        }
+    }
+
+    /**
+     * Everything the user should apply after the given token, up to pageSize
+     * rows of each kind, or a full snapshot if the token is missing, too old
+     * or from an earlier run. A snapshot holds up to pageSize + 1 ingredients
+     * and recipes, lowest ids first, so the caller can tell whether another
+     * page exists.
+     */
+    @Transactional(readOnly = true)
+    public SyncResult sync(Long userId, String token, int pageSize) {
+        long until = changeSequence.stable(); // read first: everything up to it has committed
+        long since = parseSequence(token);
+        Limit limit = Limit.of(pageSize + 1);
+        if (since < purgedUpTo || since > until) {
+            List<Ingredient> ingredients = ingredientRepository.findByIdGreaterThanOrderByIdAsc(0L, limit);
+            List<Recipe> recipes = recipeRepository.findByIdGreaterThanOrderByIdAsc(0L, limit);
+            recipes.forEach(SyncService::initializeCollections);
+            return new SyncResult(token(until), true, false, userPantryRepository.findWithIngredientByUserId(userId),
+                    ingredients, recipes, Map.of(), null, null);
+        }
+
+        List<UserPantry> pantry = userPantryRepository.findChangedBetween(userId, since, until, limit);
+        List<Ingredient> ingredients = ingredientRepository.findChangedBetween(since, until, limit);
+        List<Recipe> recipes = recipeRepository.findChangedBetween(since, until, limit);
+        List<SyncTombstone> tombstones = tombstoneRepository.findForUser(userId, since, until, limit);
+        long upTo = Math.min(until, Math.min(
+                Math.min(cut(pantry, pageSize, since, UserPantry::getChangeSeq),
+                        cut(ingredients, pageSize, since, Ingredient::getChangeSeq)),
+                Math.min(cut(recipes, pageSize, since, Recipe::getChangeSeq),
+                        cut(tombstones, pageSize, since, SyncTombstone::getChangeSeq))));
+        pantry = upTo(pantry, pageSize, upTo, UserPantry::getChangeSeq,
+                () -> userPantryRepository.findChangedBetween(userId, since, upTo, Limit.unlimited()));
+        ingredients = upTo(ingredients, pageSize, upTo, Ingredient::getChangeSeq,
+                () -> ingredientRepository.findChangedBetween(since, upTo, Limit.unlimited()));
+        recipes = upTo(recipes, pageSize, upTo, Recipe::getChangeSeq,
+                () -> recipeRepository.findChangedBetween(since, upTo, Limit.unlimited()));
+        tombstones = upTo(tombstones, pageSize, upTo, SyncTombstone::getChangeSeq,
+                () -> tombstoneRepository.findForUser(userId, since, upTo, Limit.unlimited()));
+
+        recipes.forEach(SyncService::initializeCollections);
+        Map<String, List<Long>> deleted = new TreeMap<>();
+        for (SyncTombstone tombstone : tombstones) {
+            deleted.computeIfAbsent(tombstone.getEntityType(), type -> new ArrayList<>()).add(tombstone.getEntityId());
+        }
+        return new SyncResult(token(upTo), false, upTo < until, pantry,
+                ingredients, recipes, deleted, null, null);
+    }
+
+    /**
+     * Record deletions for sync clients, in the deleting transaction. All
+     * rows removed by one call share a change sequence number.
+     */
+    public void recordDeletes(String entityType, Collection<Long> ids, Long userId) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long changeSeq = changeSequence.next();
+        Instant now = Instant.now();
+        List<SyncTombstone> tombstones = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            tombstones.add(new SyncTombstone(changeSeq, entityType, id, userId, now));
+        }
+        tombstoneRepository.saveAll(tombstones);
+    }
+
+    /**
+     * Scheduled task; an exception escaping it would cancel every later run
+     */
+    private void purge() {
+        try {
+            purgeTombstones();
+        } catch (RuntimeException e) {
+            log.warn("Sync tombstone purge failed, retrying in {} minutes", PURGE_MINUTES, e);
+        }
+    }
+
+    /**
+     * Drop tombstones older than the retention period. The horizon moves
+     * before the delete, so no client is ever given a delta with holes in it.
+     */
+    void purgeTombstones() {
+        Long upTo = tombstoneRepository.findMaxChangeSeqDeletedBefore(Instant.now().minus(retention));
+        if (upTo != null) {
+            purgedUpTo = Math.max(purgedUpTo, upTo);
+            tombstoneRepository.deleteUpTo(upTo);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private String token(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Sequence number from a token issued by this run of the server, or -1
+     */
+    private long parseSequence(String token) {
+        String prefix = epoch + "-";
+        if (token == null || !token.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Highest sequence number a page of the given rows is complete up to:
+     * everything below the first row left out, or the whole of the first
+     * sequence number if a single write already fills the page. Rows fetched
+     * in change_seq order, up to pageSize + 1; Long.MAX_VALUE if none were left out.
+     */
+    private static <T> long cut(List<T> rows, int pageSize, long since, Function<T, Long> seqOf) {
+        if (rows.size() <= pageSize) {
+            return Long.MAX_VALUE;
+        }
+        long firstLeftOut = seqOf.apply(rows.get(pageSize));
+        return firstLeftOut - 1 > since ? firstLeftOut - 1 : firstLeftOut;
+    }
+
+    /**
+     * The rows at or below upTo, fetching them all if upTo reaches past the rows fetched
+     */
+    private static <T> List<T> upTo(List<T> rows, int pageSize, long upTo, Function<T, Long> seqOf,
+                                    Supplier<List<T>> fetchAll) {
+        if (rows.size() > pageSize && seqOf.apply(rows.get(pageSize)) <= upTo) {
+            return fetchAll.get();
+        }
+        return rows.stream().filter(row -> seqOf.apply(row) <= upTo).toList();
+    }
+
+    private static void initializeCollections(Recipe recipe) {
+        Hibernate.initialize(recipe.getIngredients());
+        Hibernate.initialize(recipe.getInstructions());
+    }
+}
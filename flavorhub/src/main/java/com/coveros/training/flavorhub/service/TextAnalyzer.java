@@ -0,0 +1,152 @@
+package com.coveros.training.flavorhub.service;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizer and light English stemmer shared by full-text indexing, querying
+ * and highlighting, so the three always agree on what a term is.
+ *
+ * The stemmer strips plural, -ing, -ed and -ly endings, undoubles a final
+ * consonant and drops a final e, which is enough to make "chop", "chopped"
+ * and "chopping" or "bake", "baked" and "baking" the same term.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "about", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into",
+            "is", "it", "of", "on", "or", "that", "the", "then", "this", "to", "until", "with", "you", "your");
+
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int SNIPPET_LEAD = 40;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Stemmed terms of a text in order, without stop words
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String term = term(matcher.group());
+            if (term != null) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Distinct stemmed terms of a query
+     */
+    public static Set<String> queryTerms(String query) {
+        return new LinkedHashSet<>(terms(query));
+    }
+
+    /**
+     * HTML-escaped snippet of text with every word matching one of the terms
+     * wrapped in &lt;em&gt;, or null if nothing matches
+     */
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null || terms.isEmpty()) {
+            return null;
+        }
+        List<int[]> matches = new ArrayList<>();
+        Matcher matcher = WORD.matcher(text);
+        while (matcher.find()) {
+            String term = term(matcher.group());
+            if (term != null && terms.contains(term)) {
+                matches.add(new int[]{matcher.start(), matcher.end()});
+            }
+        }
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        int start = 0;
+        int end = text.length();
+        if (text.length() > SNIPPET_LENGTH) {
+            start = Math.max(0, matches.get(0)[0] - SNIPPET_LEAD);
+            while (start > 0 && !Character.isWhitespace(text.charAt(start - 1))) {
+                start--;
+            }
+            end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        }
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("…");
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[0] < start) {
+                continue;
+            }
+            if (match[1] > end) {
+                break;
+            }
+            snippet.append(HtmlUtils.htmlEscape(text.substring(position, match[0])))
+                    .append("<em>").append(HtmlUtils.htmlEscape(text.substring(match[0], match[1]))).append("</em>");
+            position = match[1];
+        }
+        snippet.append(HtmlUtils.htmlEscape(text.substring(position, end)));
+        if (end < text.length()) {
+            snippet.append("…");
+        }
+        return snippet.toString();
+    }
+
+    private static String term(String word) {
+        String lower = word.toLowerCase(Locale.ROOT);
+        return STOP_WORDS.contains(lower) ? null : stem(lower);
+    }
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() > 4) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+
+        boolean stripped = false;
+        if (stem.endsWith("ing") && stem.length() >= 6) {
+            stem = stem.substring(0, stem.length() - 3);
+            stripped = true;
+        } else if (stem.endsWith("ed") && stem.length() >= 5) {
+            stem = stem.substring(0, stem.length() - 2);
+            stripped = true;
+        } else if (stem.endsWith("ly") && stem.length() >= 5) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        if (stripped && stem.length() > 2) {
+            char last = stem.charAt(stem.length() - 1);
+            if (last == stem.charAt(stem.length() - 2) && "aeioulsz".indexOf(last) < 0) {
+                stem = stem.substring(0, stem.length() - 1);
+            }
+        }
+        if (stem.endsWith("e") && stem.length() > 3) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+}
@@ -0,0 +1,163 @@
+package com.coveros.training.flavorhub.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe trigram index for case-insensitive substring search over names.
+ *
+ * Every name is split into overlapping three-character grams, and each gram
+ * keeps a BitSet of the slots whose name contains it. A query intersects the
+ * postings of its own grams, starting from the rarest, and only the surviving
+ * candidates are verified with a real substring check.
+ */
+public class TrigramIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BitSet> postings = new HashMap<>();
+    private final Map<Long, Integer> slotsById = new HashMap<>();
+    private final List<Entry> slots = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    /**
+     * Add or replace the name indexed for an id
+     */
+    public void put(Long id, String name) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+            if (name == null) {
+                return;
+            }
+            String normalized = normalize(name);
+            int slot;
+            if (freeSlots.isEmpty()) {
+                slot = slots.size();
+                slots.add(new Entry(id, normalized));
+            } else {
+                slot = freeSlots.pop();
+                slots.set(slot, new Entry(id, normalized));
+            }
+            slotsById.put(id, slot);
+            for (long gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new BitSet()).set(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeSlot(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            slotsById.clear();
+            slots.clear();
+            freeSlots.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the ids whose name contains the search term, ignoring case.
+     * Terms shorter than a trigram fall back to scanning the in-memory names.
+     */
+    public List<Long> search(String term) {
+        String query = normalize(term);
+        lock.readLock().lock();
+        try {
+            BitSet candidates;
+            if (query.length() < 3) {
+                candidates = new BitSet(slots.size());
+                candidates.set(0, slots.size());
+            } else {
+                candidates = intersect(grams(query));
+            }
+
+            List<Long> ids = new ArrayList<>();
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                Entry entry = slots.get(slot);
+                if (entry != null && entry.name.contains(query)) {
+                    ids.add(entry.id);
+                }
+            }
+            Collections.sort(ids);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet intersect(Set<Long> grams) {
+        List<BitSet> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            BitSet posting = postings.get(gram);
+            if (posting == null) {
+                return new BitSet();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(BitSet::cardinality));
+        BitSet result = (BitSet) lists.get(0).clone();
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.and(lists.get(i));
+        }
+        return result;
+    }
+
+    private void removeSlot(Long id) {
+        Integer slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        for (long gram : grams(slots.get(slot).name)) {
+            BitSet posting = postings.get(gram);
+            posting.clear(slot);
+            if (posting.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+        slots.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * Pack each run of three characters into a single long key
+     */
+    private static Set<Long> grams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(Long id, String name) {
+    }
+}
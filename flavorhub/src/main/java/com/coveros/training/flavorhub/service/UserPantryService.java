@@ -1,15 +1,43 @@
 package com.coveros.training.flavorhub.service;
 
+import com.coveros.training.flavorhub.dto.CookResult;
+import com.coveros.training.flavorhub.dto.IngredientRequirement;
+import com.coveros.training.flavorhub.dto.PantryBatchResult;
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.dto.RecipeSufficiency;
+import com.coveros.training.flavorhub.dto.ShoppingListItem;
+import com.coveros.training.flavorhub.event.EntityChangedEvent;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
 import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.MeasurementUnit;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
 import com.coveros.training.flavorhub.model.UserPantry;
 import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
 import com.coveros.training.flavorhub.repository.UserPantryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Service for managing user pantry
@@ -21,17 +49,145 @@ public class UserPantryService {
     
     private final UserPantryRepository userPantryRepository;
     private final IngredientRepository ingredientRepository;
+    private final RecipeRepository recipeRepository;
+    private final IngredientNameResolver ingredientNameResolver;
+    private final PantryCache pantryCache;
+    private final ExpiryTimingWheel expiryTimingWheel;
+    private final ChangeSequence changeSequence;
+    private final SyncService syncService;
+    private final ApplicationEventPublisher eventPublisher;
     
+    @Transactional(readOnly = true)
     public List<UserPantry> getUserPantry(Long userId) {
-        return userPantryRepository.findByUserId(userId);
+        return pantryCache.get(userId);
+    }
+    
+    /**
+     * Get up to limit of a user's pantry items with ids greater than afterId,
+     * in id order, from the user's cached pantry
+     */
+    @Transactional(readOnly = true)
+    public List<UserPantry> getUserPantryAfter(Long userId, long afterId, int limit) {
+        List<UserPantry> items = pantryCache.get(userId);
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (items.get(mid).getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return items.subList(low, Math.min(items.size(), low + limit));
+    }
+    
+    /**
+     * Get a user's pantry items that expire within the given number of days,
+     * or within the notification notice period if days is null, soonest
+     * first. Items already past their date are included.
+     */
+    @Transactional(readOnly = true)
+    public List<UserPantry> getExpiringItems(Long userId, Integer days) {
+        Instant until = Instant.now().plus(days == null ? expiryTimingWheel.getNotice() : Duration.ofDays(days));
+        List<UserPantry> expiring = new ArrayList<>();
+        for (UserPantry item : pantryCache.get(userId)) {
+            if (item.getExpiresAt() != null && item.getExpiresAt().isBefore(until)) {
+                expiring.add(item);
+            }
+        }
+        expiring.sort(Comparator.comparing(UserPantry::getExpiresAt));
+        return expiring;
     }
     
     public Optional<UserPantry> getPantryItemById(Long id) {
         return userPantryRepository.findById(id);
     }
     
+    /**
+     * Add an item to a pantry. If the user already has the ingredient, the
+     * quantity is added to the existing row instead.
+     */
     public UserPantry addPantryItem(UserPantry pantryItem) {
-        return userPantryRepository.save(pantryItem);
+        PantryItemRequest item = new PantryItemRequest(pantryItem.getIngredient().getId(),
+                pantryItem.getQuantity(), pantryItem.getUnit(), pantryItem.getNotes(), pantryItem.getExpiresAt());
+        return upsertPantryItems(pantryItem.getUserId(), List.of(item)).getItems().get(0);
+    }
+    
+    /**
+     * Add many items to a user's pantry at once, keeping one row per
+     * ingredient. Existing rows for the ingredients are read with one IN query
+     * and the missing ingredients with another; amounts are added to existing
+     * rows, converted to the row's unit, and items for new ingredients become
+     * new rows, written with the updates as JDBC batches in one flush. If a
+     * concurrent request inserts the same new ingredient for the user first,
+     * the flush fails with DataIntegrityViolationException on
+     * uk_user_pantry_user_ingredient and nothing is written.
+     */
+    public PantryBatchResult upsertPantryItems(Long userId, List<PantryItemRequest> items) {
+        Set<Long> ingredientIds = new HashSet<>();
+        items.forEach(item -> ingredientIds.add(item.getIngredientId()));
+        
+        Map<Long, UserPantry> rows = new LinkedHashMap<>();
+        for (UserPantry existing : userPantryRepository.findWithIngredientByUserIdAndIngredientIdIn(userId, ingredientIds)) {
+            rows.put(existing.getIngredient().getId(), existing);
+        }
+        int updated = rows.size();
+        Map<Long, Ingredient> newIngredients = new HashMap<>();
+        if (rows.size() < ingredientIds.size()) {
+            Set<Long> missing = new HashSet<>(ingredientIds);
+            missing.removeAll(rows.keySet());
+            ingredientRepository.findAllById(missing).forEach(i -> newIngredients.put(i.getId(), i));
+            missing.removeAll(newIngredients.keySet());
+            if (!missing.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Ingredient not found with id: " + missing);
+            }
+        }
+        
+        List<UserPantry> inserts = new ArrayList<>();
+        for (PantryItemRequest item : items) {
+            UserPantry row = rows.get(item.getIngredientId());
+            if (row == null) {
+                row = new UserPantry(userId, newIngredients.get(item.getIngredientId()), item.getQuantity(), item.getUnit());
+                row.setNotes(item.getNotes());
+                row.setExpiresAt(item.getExpiresAt());
+                rows.put(item.getIngredientId(), row);
+                inserts.add(row);
+            } else {
+                addToRow(row, item);
+            }
+        }
+        userPantryRepository.saveAllAndFlush(inserts);
+        
+        List<UserPantry> saved = new ArrayList<>(rows.values());
+        saved.forEach(row -> eventPublisher.publishEvent(PantryChangedEvent.saved(row)));
+        return new PantryBatchResult(inserts.size(), updated, saved);
+    }
+    
+    private static void addToRow(UserPantry row, PantryItemRequest item) {
+        if (item.getNotes() != null) {
+            row.setNotes(item.getNotes());
+        }
+        // The pantry holds both amounts now, so the sooner date is the one to watch
+        if (item.getExpiresAt() != null
+                && (row.getExpiresAt() == null || item.getExpiresAt().isBefore(row.getExpiresAt()))) {
+            row.setExpiresAt(item.getExpiresAt());
+        }
+        if (item.getQuantity() == null) {
+            return;
+        }
+        if (row.getQuantity() == null) {
+            row.setQuantity(item.getQuantity());
+            row.setUnit(item.getUnit());
+            return;
+        }
+        if (!MeasurementUnit.baseUnitOf(row.getUnit()).equals(MeasurementUnit.baseUnitOf(item.getUnit()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot add " + item.getUnit() + " of "
+                    + row.getIngredient().getName() + " to a pantry item measured in " + row.getUnit());
+        }
+        double amount = MeasurementUnit.toBaseQuantity(item.getQuantity(), item.getUnit())
+                / MeasurementUnit.toBaseQuantity(1.0, row.getUnit());
+        row.setQuantity(Math.round((row.getQuantity() + amount) * 1000.0) / 1000.0);
     }
     
     public UserPantry updatePantryItem(Long id, UserPantry updatedPantryItem) {
@@ -40,28 +196,290 @@ public class UserPantryService {
                 existing.setQuantity(updatedPantryItem.getQuantity());
                 existing.setUnit(updatedPantryItem.getUnit());
                 existing.setNotes(updatedPantryItem.getNotes());
-                return userPantryRepository.save(existing);
+                existing.setExpiresAt(updatedPantryItem.getExpiresAt());
+                UserPantry saved = userPantryRepository.save(existing);
+                eventPublisher.publishEvent(PantryChangedEvent.saved(saved));
+                return saved;
             })
             .orElseThrow(() -> new RuntimeException("Pantry item not found with id: " + id));
     }
     
-    public void deletePantryItem(Long id) {
-        userPantryRepository.deleteById(id);
+    /**
+     * Deduct every ingredient of a recipe from a user's pantry, all or nothing.
+     * The recipe comes from the second-level cache, and the deduction is a
+     * single conditional UPDATE, so concurrent cooks never lose an update and
+     * never overdraw a row. If any ingredient is short, InsufficientPantryException
+     * rolls the whole deduction back. Returns empty if the recipe does not exist.
+     *
+     * A pantry row holds its ingredient in one base unit, so a recipe that
+     * measures one ingredient in two ("2 eggs" and "50 g egg") can never be
+     * deducted in full and is rejected rather than reported as short.
+     */
+    public Optional<CookResult> cookRecipe(Long userId, Long recipeId) {
+        Optional<Recipe> found = recipeRepository.findById(recipeId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Recipe recipe = found.get();
+        Map<Long, String> baseUnits = new HashMap<>();
+        List<String> notDeducted = new ArrayList<>();
+        for (RecipeIngredient ingredient : recipe.getIngredients()) {
+            if (ingredient.getIngredientId() == null || ingredient.getBaseQuantity() == null
+                    || ingredient.getBaseQuantity() <= 0) {
+                notDeducted.add(ingredient.getIngredientName());
+                continue;
+            }
+            String baseUnit = baseUnits.putIfAbsent(ingredient.getIngredientId(), ingredient.getBaseUnit());
+            if (baseUnit != null && !baseUnit.equals(ingredient.getBaseUnit())) {
+                throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, "Recipe " + recipeId + " measures "
+                        + ingredient.getIngredientName() + " in both " + baseUnit + " and " + ingredient.getBaseUnit()
+                        + ", so it cannot be deducted from one pantry item");
+            }
+        }
+        
+        List<UserPantry> items = List.of();
+        if (!baseUnits.isEmpty()) {
+            if (userPantryRepository.deductRecipeIngredients(userId, recipeId, changeSequence.next()) < baseUnits.size()) {
+                throw new InsufficientPantryException(recipeId);
+            }
+            items = userPantryRepository.findWithIngredientByUserIdAndIngredientIdIn(userId, baseUnits.keySet());
+            for (UserPantry item : items) {
+                eventPublisher.publishEvent(PantryChangedEvent.saved(item));
+                eventPublisher.publishEvent(new EntityChangedEvent(
+                        "pantry", item.getId(), item.getVersion(), EntityChangedEvent.UPDATE, userId));
+            }
+        }
+        return Optional.of(new CookResult(recipe.getId(), recipe.getName(), items, notDeducted));
+    }
+    
+    /**
+     * Delete one of a user's pantry items; items of other users are left alone
+     */
+    public void deletePantryItem(Long userId, Long id) {
+        userPantryRepository.findById(id).filter(item -> item.getUserId().equals(userId)).ifPresent(item -> {
+            userPantryRepository.delete(item);
+            syncService.recordDeletes("pantry", List.of(id), userId);
+            eventPublisher.publishEvent(PantryChangedEvent.deleted(item.getUserId(), id, item.getIngredient().getId()));
+        });
     }
     
-    public void clearUserPantry(Long userId) {
-        userPantryRepository.deleteByUserId(userId);
+    /**
+     * Delete everything in a user's pantry with one bulk DELETE, after reading
+     * the item ids for change notifications and sync tombstones. Returns the number of items deleted.
+     */
+    public int clearUserPantry(Long userId) {
+        List<Long> ids = userPantryRepository.findIdsByUserId(userId);
+        int deleted = userPantryRepository.deleteByUserId(userId);
+        syncService.recordDeletes("pantry", ids, userId);
+        eventPublisher.publishEvent(PantryChangedEvent.cleared(userId));
+        for (Long id : ids) {
+            eventPublisher.publishEvent(new EntityChangedEvent("pantry", id, null, EntityChangedEvent.DELETE, userId));
+        }
+        return deleted;
     }
     
     /**
      * Check if user has sufficient quantity of an ingredient
-     * NOTE: This method is intentionally left incomplete for workshop participants
      */
-    // TODO: Implement method to check if user has enough of an ingredient
+    @Transactional(readOnly = true)
+    public boolean hasSufficientQuantity(Long userId, String ingredientName, Double quantity, String unit) {
+        return loadStock(userId).has(ingredientNameResolver.resolve(ingredientName), ingredientName,
+                MeasurementUnit.baseUnitOf(unit), MeasurementUnit.toBaseQuantity(quantity, unit));
+    }
     
     /**
-     * Get list of ingredient names that user has in pantry
-     * NOTE: Workshop participants will implement this using Copilot
+     * Check every ingredient of the given recipes (all recipes when recipeIds is
+     * null) against a user's pantry. The pantry is read with one query and
+     * summed per ingredient and base unit; recipes come from the second-level
+     * cache or batched loads. Ingredient ids and base-unit quantities were
+     * resolved when the recipes were saved, so each comparison is a map
+     * lookup on the id and a subtraction.
      */
-    // TODO: Implement method to get ingredient names from user's pantry
+    @Transactional(readOnly = true)
+    public List<RecipeSufficiency> checkSufficiency(Long userId, Collection<Long> recipeIds) {
+        PantryStock stock = loadStock(userId);
+        List<Recipe> recipes = recipeIds == null ? recipeRepository.findAll() : recipeRepository.findAllById(recipeIds);
+        recipes.sort(Comparator.comparing(Recipe::getId));
+        
+        List<RecipeSufficiency> results = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            List<String> insufficient = null;
+            for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                if (!stock.has(ingredient.getIngredientId(), ingredient.getIngredientName(),
+                        ingredient.getBaseUnit(), ingredient.getBaseQuantity())) {
+                    if (insufficient == null) {
+                        insufficient = new ArrayList<>();
+                    }
+                    insufficient.add(ingredient.getIngredientName());
+                }
+            }
+            results.add(new RecipeSufficiency(recipe.getId(), recipe.getName(), insufficient == null,
+                    insufficient == null ? List.of() : insufficient));
+        }
+        return results;
+    }
+    
+    /**
+     * Consolidate everything the given recipes need, less what the user already
+     * has, into one line per ingredient and base unit. A recipe listed twice is
+     * needed twice. Runs exactly two queries: the ingredient rows of all the
+     * recipes and the user's pantry.
+     *
+     * Each distinct ingredient and unit gets a dense slot the first time it is
+     * seen and amounts are summed into a primitive array, so the per-row work
+     * is one lookup and an add with no boxing.
+     */
+    @Transactional(readOnly = true)
+    public List<ShoppingListItem> buildShoppingList(Long userId, List<Long> recipeIds) {
+        Map<Long, Integer> servingsPerRecipe = new HashMap<>();
+        recipeIds.forEach(id -> servingsPerRecipe.merge(id, 1, Integer::sum));
+        List<IngredientRequirement> rows = recipeRepository.findIngredientRequirements(servingsPerRecipe.keySet());
+        
+        Map<String, Integer> slots = new HashMap<>();
+        List<IngredientRequirement> firstSeen = new ArrayList<>();
+        double[] needed = new double[rows.size()];
+        boolean[] quantified = new boolean[rows.size()];
+        for (IngredientRequirement row : rows) {
+            if (row.getIngredientName() == null || row.getIngredientName().isBlank()) {
+                continue;
+            }
+            String key = (row.getIngredientId() != null ? "#" + row.getIngredientId()
+                    : row.getIngredientName().strip().toLowerCase(Locale.ROOT)) + '|' + row.getBaseUnit();
+            int slot = slots.computeIfAbsent(key, k -> {
+                firstSeen.add(row);
+                return firstSeen.size() - 1;
+            });
+            if (row.getBaseQuantity() != null) {
+                needed[slot] += row.getBaseQuantity() * servingsPerRecipe.get(row.getRecipeId());
+                quantified[slot] = true;
+            }
+        }
+        
+        PantryStock stock = loadStock(userId);
+        List<ShoppingListItem> items = new ArrayList<>();
+        for (int slot = 0; slot < firstSeen.size(); slot++) {
+            IngredientRequirement row = firstSeen.get(slot);
+            String name = row.getIngredientName().strip();
+            if (!quantified[slot]) {
+                if (!stock.contains(row.getIngredientId(), name)) {
+                    items.add(new ShoppingListItem(name, null, row.getBaseUnit()));
+                }
+                continue;
+            }
+            double missing = needed[slot] - Math.max(0.0, stock.amount(row.getIngredientId(), name, row.getBaseUnit()));
+            if (missing > 0.0) {
+                items.add(new ShoppingListItem(name, Math.round(missing * 1000.0) / 1000.0, row.getBaseUnit()));
+            }
+        }
+        items.sort(Comparator.comparing(ShoppingListItem::getIngredientName, String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(ShoppingListItem::getUnit));
+        return items;
+    }
+    
+    private PantryStock loadStock(Long userId) {
+        PantryStock stock = new PantryStock();
+        for (UserPantry item : pantryCache.get(userId)) {
+            stock.add(item.getIngredient().getId(), item.getIngredient().getName(),
+                    item.getBaseUnit(), item.getBaseQuantity());
+        }
+        return stock;
+    }
+    
+    /**
+     * Pantry totals keyed by ingredient id, and by name ignoring case for
+     * recipe ingredients whose name did not resolve to an ingredient. Each
+     * ingredient keeps parallel arrays of base units and amounts; it is almost
+     * always a single unit, so lookups need no allocation.
+     */
+    private static class PantryStock {
+        
+        private final Map<Long, Amounts> byId = new HashMap<>();
+        private final TreeMap<String, Amounts> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        
+        void add(Long ingredientId, String name, String baseUnit, Double baseQuantity) {
+            Amounts amounts = byId.computeIfAbsent(ingredientId, id -> new Amounts());
+            if (name != null) {
+                byName.putIfAbsent(name.trim(), amounts);
+            }
+            amounts.add(baseUnit, baseQuantity == null ? 0.0 : baseQuantity);
+        }
+        
+        /**
+         * True if the pantry holds at least the required amount; a recipe
+         * ingredient without a quantity only needs to be present
+         */
+        boolean has(Long ingredientId, String name, String baseUnit, Double required) {
+            if (ingredientId == null && name == null) {
+                return true;
+            }
+            Amounts amounts = find(ingredientId, name);
+            if (amounts == null) {
+                return false;
+            }
+            return required == null || amounts.get(baseUnit) >= required;
+        }
+        
+        boolean contains(Long ingredientId, String name) {
+            return find(ingredientId, name) != null;
+        }
+        
+        /**
+         * Amount held in the given base unit, or -1 if none is held in that unit
+         */
+        double amount(Long ingredientId, String name, String baseUnit) {
+            Amounts amounts = find(ingredientId, name);
+            return amounts == null ? -1.0 : amounts.get(baseUnit);
+        }
+        
+        private Amounts find(Long ingredientId, String name) {
+            if (ingredientId != null) {
+                return byId.get(ingredientId);
+            }
+            return name == null ? null : byName.get(name.strip());
+        }
+    }
+    
+    private static class Amounts {
+        
+        private String[] units = new String[1];
+        private double[] totals = new double[1];
+        private int size;
+        
+        void add(String unit, double amount) {
+            for (int i = 0; i < size; i++) {
+                if (units[i].equals(unit)) {
+                    totals[i] += amount;
+                    return;
+                }
+            }
+            if (size == units.length) {
+                units = Arrays.copyOf(units, size * 2);
+                totals = Arrays.copyOf(totals, size * 2);
+            }
+            units[size] = unit;
+            totals[size++] = amount;
+        }
+        
+        double get(String unit) {
+            for (int i = 0; i < size; i++) {
+                if (units[i].equals(unit)) {
+                    return totals[i];
+                }
+            }
+            return -1.0; // not stocked in a comparable unit
+        }
+    }
+    
+    /**
+     * Get the ingredients in a user's pantry
+     */
+    @Transactional(readOnly = true)
+    public List<Ingredient> getPantryIngredients(Long userId) {
+        List<UserPantry> items = pantryCache.get(userId);
+        List<Ingredient> ingredients = new ArrayList<>(items.size());
+        for (UserPantry item : items) {
+            ingredients.add(item.getIngredient());
+        }
+        return ingredients;
+    }
 }
@@ -0,0 +1,162 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.service.IngredientService;
+import com.coveros.training.flavorhub.service.RecipeService;
+import com.coveros.training.flavorhub.service.UserPantryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags must match until something is written and change after every kind
+ * of write, including the native UPDATE and bulk DELETE paths that bypass
+ * Hibernate's own version handling
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    private static final long USER_ID = 9191L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Test
+    void recipeIsNotModifiedUntilItIsUpdated() throws Exception {
+        Long id = recipeService.saveRecipe(new Recipe("ETag Test Broth", "Plain", 5, 30, 4, "Easy", "Test")).getId();
+        String tag = etagOf(get("/api/recipes/{id}", id));
+        assertNotModified(get("/api/recipes/{id}", id), tag);
+
+        mockMvc.perform(put("/api/recipes/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"ETag Test Broth\", \"description\": \"Richer\", \"servings\": 4}"))
+                .andExpect(status().isOk());
+
+        assertModified(get("/api/recipes/{id}", id), tag);
+    }
+
+    @Test
+    void ingredientIsNotModifiedUntilItIsUpdated() throws Exception {
+        Ingredient ingredient = ingredientService.saveIngredient(new Ingredient("ETag Test Fennel", "Vegetable", "g"));
+        String tag = etagOf(get("/api/ingredients/{id}", ingredient.getId()));
+        String listTag = etagOf(get("/api/ingredients"));
+        assertNotModified(get("/api/ingredients/{id}", ingredient.getId()), tag);
+        assertNotModified(get("/api/ingredients"), listTag);
+
+        mockMvc.perform(put("/api/ingredients/{id}", ingredient.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"ETag Test Fennel\", \"category\": \"Herb\", \"unit\": \"g\"}"))
+                .andExpect(status().isOk());
+
+        assertModified(get("/api/ingredients/{id}", ingredient.getId()), tag);
+        assertModified(get("/api/ingredients"), listTag);
+    }
+
+    /**
+     * The cook deduction is a native UPDATE, so it bumps the version itself
+     */
+    @Test
+    void pantryTagAndItemVersionChangeAfterACook() throws Exception {
+        Ingredient rice = ingredientService.saveIngredient(new Ingredient("ETag Test Rice", "Grain", "g"));
+        Recipe recipe = new Recipe("ETag Test Pilaf", null, 5, 20, 2, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("ETag Test Rice", 100.0, "g", null))));
+        Long recipeId = recipeService.saveRecipe(recipe).getId();
+        UserPantry item = userPantryService.addPantryItem(new UserPantry(USER_ID, rice, 500.0, "g"));
+
+        String tag = etagOf(get("/api/pantry").header(CurrentUser.HEADER, USER_ID));
+        assertNotModified(get("/api/pantry").header(CurrentUser.HEADER, USER_ID), tag);
+
+        mockMvc.perform(post("/api/recipes/{id}/cook", recipeId).header(CurrentUser.HEADER, USER_ID))
+                .andExpect(status().isOk());
+
+        assertModified(get("/api/pantry").header(CurrentUser.HEADER, USER_ID), tag);
+        mockMvc.perform(get("/api/pantry").header(CurrentUser.HEADER, USER_ID))
+                .andExpect(jsonPath("$[?(@.id == " + item.getId() + ")].quantity").value(400.0))
+                .andExpect(jsonPath("$[?(@.id == " + item.getId() + ")].version").value((int) (item.getVersion() + 1)));
+    }
+
+    @Test
+    void listTagsChangeAfterBulkDeletes() throws Exception {
+        Long id = recipeService.saveRecipe(new Recipe("ETag Test Chowder", null, 5, 20, 2, "Easy", "Test")).getId();
+        Ingredient corn = ingredientService.saveIngredient(new Ingredient("ETag Test Corn", "Vegetable", "g"));
+        userPantryService.addPantryItem(new UserPantry(USER_ID + 1, corn, 2.0, "g"));
+
+        String recipesTag = etagOf(get("/api/recipes"));
+        String recipeTag = etagOf(get("/api/recipes/{id}", id));
+        String pantryTag = etagOf(get("/api/pantry").header(CurrentUser.HEADER, USER_ID + 1));
+
+        mockMvc.perform(delete("/api/recipes").param("ids", id.toString())).andExpect(status().isOk());
+        mockMvc.perform(delete("/api/pantry").header(CurrentUser.HEADER, USER_ID + 1)).andExpect(status().isNoContent());
+
+        assertModified(get("/api/recipes"), recipesTag);
+        mockMvc.perform(get("/api/recipes/{id}", id).header(HttpHeaders.IF_NONE_MATCH, recipeTag))
+                .andExpect(status().isNotFound());
+        assertModified(get("/api/pantry").header(CurrentUser.HEADER, USER_ID + 1), pantryTag);
+    }
+
+    /**
+     * Creating an ingredient re-resolves recipe rows that named it, with a
+     * native UPDATE that must bump the recipes' versions
+     */
+    @Test
+    void recipeTagChangesWhenItsIngredientIsResolvedLater() throws Exception {
+        Recipe recipe = new Recipe("ETag Test Ponzu Salad", null, 5, 0, 2, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("ETag Test Yuzu", 1.0, "", null))));
+        Long id = recipeService.saveRecipe(recipe).getId();
+        String tag = etagOf(get("/api/recipes/{id}", id));
+
+        mockMvc.perform(post("/api/ingredients").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"ETag Test Yuzu\", \"category\": \"Fruit\", \"unit\": \"count\"}"))
+                .andExpect(status().isCreated());
+
+        assertModified(get("/api/recipes/{id}", id), tag);
+        mockMvc.perform(get("/api/recipes/{id}", id)).andExpect(jsonPath("$.ingredients[0].ingredientId").isNumber());
+    }
+
+    private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+        String tag = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(tag).isNotBlank();
+        return tag;
+    }
+
+    private void assertNotModified(MockHttpServletRequestBuilder request, String tag) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, tag)).andExpect(status().isNotModified());
+    }
+
+    private void assertModified(MockHttpServletRequestBuilder request, String tag) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(tag)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.coveros.training.flavorhub.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(42L))).isEqualTo(42L);
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+        assertThat(KeysetCursor.decode(null)).isZero();
+        assertThat(KeysetCursor.decode(" ")).isZero();
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        for (String cursor : List.of("%%%", "NDI", KeysetCursor.encode(1L).substring(1))) {
+            assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void clampsPageSizes() {
+        assertThat(KeysetCursor.pageSize(null)).isEqualTo(KeysetCursor.DEFAULT_PAGE_SIZE);
+        assertThat(KeysetCursor.pageSize(0)).isEqualTo(1);
+        assertThat(KeysetCursor.pageSize(10_000)).isEqualTo(KeysetCursor.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    void setsTheNextCursorOnlyWhenAnotherPageExists() {
+        ResponseEntity<List<Long>> full = KeysetCursor.page(List.of(3L, 5L, 8L), 2, Function.identity());
+        assertThat(full.getBody()).containsExactly(3L, 5L);
+        assertThat(KeysetCursor.decode(full.getHeaders().getFirst(KeysetCursor.NEXT_CURSOR_HEADER))).isEqualTo(5L);
+
+        ResponseEntity<List<Long>> last = KeysetCursor.page(List.of(13L, 21L), 2, Function.identity());
+        assertThat(last.getBody()).containsExactly(13L, 21L);
+        assertThat(last.getHeaders().containsKey(KeysetCursor.NEXT_CURSOR_HEADER)).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.service.IngredientService;
+import com.coveros.training.flavorhub.service.UserPantryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Following X-Next-Cursor from the first page must visit every row once, in id order
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KeysetPaginationTest {
+
+    private static final long USER_ID = 9301L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Test
+    void walksThePantryPageByPage() throws Exception {
+        List<PantryItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Ingredient ingredient = ingredientService.saveIngredient(new Ingredient("Paging Test Bean " + i, "Legume", "g"));
+            items.add(new PantryItemRequest(ingredient.getId(), 100.0, "g", null, null));
+        }
+        userPantryService.upsertPantryItems(USER_ID, items);
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletResponse response = mockMvc.perform(get("/api/pantry")
+                            .header(CurrentUser.HEADER, USER_ID)
+                            .param("size", "2")
+                            .param("cursor", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            JsonNode page = objectMapper.readTree(response.getContentAsString());
+            page.forEach(row -> ids.add(row.get("id").asLong()));
+            pageSizes.add(page.size());
+            cursor = response.getHeader(KeysetCursor.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(ids).hasSize(5).doesNotHaveDuplicates().isSorted();
+    }
+
+    @Test
+    void rejectsAForgedCursor() throws Exception {
+        mockMvc.perform(get("/api/recipes").param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,80 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Times GET /api/recipes/{id} with the recipe and its collections served
+ * from the second-level cache, and with every region evicted before each
+ * request so the recipe, ingredients and instructions come from the
+ * database. Cycles through ten recipes. Not part of the normal build; run
+ * with
+ *
+ *     mvn test -Dtest=RecipeCacheBenchmark -Dbenchmark=true [-Dbenchmark.requests=5000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = "logging.level.com.coveros.training.flavorhub=INFO")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeCacheBenchmark {
+
+    private static final int WARMUP_REQUESTS = 500;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void getRecipeByIdCachedAndUncached() throws Exception {
+        int requests = Integer.getInteger("benchmark.requests", 5000);
+        List<Long> ids = recipeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10)).stream()
+                .map(Recipe::getId).toList();
+        assertThat(ids).hasSize(10);
+
+        run(ids, WARMUP_REQUESTS, true);
+        run(ids, WARMUP_REQUESTS, false);
+        System.out.printf("%n%d requests over %d recipes%n", requests, ids.size());
+        System.out.printf("%-10s %10s %10s%n", "cache", "p50 ms", "p99 ms");
+        for (boolean evict : new boolean[] {true, false}) {
+            long[] nanos = run(ids, requests, evict);
+            Arrays.sort(nanos);
+            System.out.printf("%-10s %10.2f %10.2f%n", evict ? "evicted" : "warm",
+                    nanos[requests / 2] / 1e6, nanos[requests * 99 / 100] / 1e6);
+        }
+    }
+
+    private long[] run(List<Long> ids, int requests, boolean evict) throws Exception {
+        long[] nanos = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            if (evict) {
+                entityManagerFactory.getCache().evictAll();
+            }
+            long started = System.nanoTime();
+            int status = mockMvc.perform(get("/api/recipes/{id}", ids.get(i % ids.size())))
+                    .andReturn().getResponse().getStatus();
+            nanos[i] = System.nanoTime() - started;
+            assertThat(status).isEqualTo(200);
+        }
+        return nanos;
+    }
+}
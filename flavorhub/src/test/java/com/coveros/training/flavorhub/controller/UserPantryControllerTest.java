@@ -0,0 +1,89 @@
+package com.coveros.training.flavorhub.controller;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import com.coveros.training.flavorhub.service.IngredientService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserPantryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    @Test
+    void requestsWithoutAValidUserIdAreRejected() throws Exception {
+        mockMvc.perform(get("/api/pantry")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pantry").header(CurrentUser.HEADER, "alice")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pantry").header(CurrentUser.HEADER, 0)).andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/pantry/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pantry").header(CurrentUser.HEADER, 7100)).andExpect(status().isOk());
+    }
+
+    /**
+     * Two batches racing to add the same new ingredient both pick "insert";
+     * the loser must retry as an update rather than fail on the unique key
+     */
+    @Test
+    void concurrentBatchesAddingTheSameNewIngredientBothCount() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 1; round <= 10; round++) {
+                long userId = 7000L + round;
+                Ingredient ingredient = ingredientService.saveIngredient(
+                        new Ingredient("Batch Race Test Oats " + round, "Grain", "g"));
+                String body = "[{\"ingredientId\": " + ingredient.getId() + ", \"quantity\": 100, \"unit\": \"g\"}]";
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> batches = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    batches.add(executor.submit(() -> {
+                        start.await();
+                        return mockMvc.perform(post("/api/pantry/batch")
+                                        .header(CurrentUser.HEADER, userId)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .content(body))
+                                .andReturn().getResponse().getStatus();
+                    }));
+                }
+                start.countDown();
+                for (Future<Integer> batch : batches) {
+                    assertThat(batch.get()).isEqualTo(200);
+                }
+
+                assertThat(userPantryRepository.findWithIngredientByUserIdAndIngredientIdIn(userId, List.of(ingredient.getId())))
+                        .singleElement().extracting(UserPantry::getQuantity).isEqualTo(200.0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
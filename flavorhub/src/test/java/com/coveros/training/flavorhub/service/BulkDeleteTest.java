@@ -0,0 +1,117 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.dto.SyncResult;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Set-based deletes must remove the collection rows with their owners and
+ * leave a sync tombstone for every row they removed, and only for those
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BulkDeleteTest {
+
+    private static final long USER_ID = 6501L;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletesRecipesWithTheirRowsAndRecordsTombstones() {
+        Long soup = save("Bulk Test Soup", 5, 20);
+        Long bread = save("Bulk Test Bread", 30, 40);
+        Long kept = save("Bulk Test Salad", 10, 0);
+        String token = syncService.sync(USER_ID, null, 100).getToken();
+
+        assertThat(recipeService.deleteRecipes(List.of(soup, bread, Long.MAX_VALUE))).isEqualTo(2);
+
+        assertThat(recipeRepository.findAllById(List.of(soup, bread, kept))).extracting(Recipe::getId).containsExactly(kept);
+        assertThat(collectionRows("recipe_ingredients", List.of(soup, bread))).isZero();
+        assertThat(collectionRows("recipe_instructions", List.of(soup, bread))).isZero();
+        assertThat(collectionRows("recipe_ingredients", List.of(kept))).isEqualTo(1);
+        assertThat(syncService.sync(USER_ID, token, 100).getDeleted().get("recipe"))
+                .containsExactlyInAnyOrder(soup, bread);
+    }
+
+    @Test
+    void deletesOnlyRecipesMatchingEveryCriterion() {
+        Long quick = save("Bulk Test Toast", 2, 3);
+        Long slow = save("Bulk Test Roast", 20, 90);
+
+        assertThat(recipeService.deleteRecipesMatching("Bulk Test", "Easy", 5)).isEqualTo(1);
+
+        assertThat(recipeRepository.existsById(quick)).isFalse();
+        assertThat(recipeRepository.existsById(slow)).isTrue();
+        assertThatThrownBy(() -> recipeService.deleteRecipesMatching(null, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void clearsOneUsersPantryWithTombstonesForThatUser() {
+        Ingredient rye = ingredientService.saveIngredient(new Ingredient("Bulk Test Rye", "Grain", "g"));
+        Ingredient spelt = ingredientService.saveIngredient(new Ingredient("Bulk Test Spelt", "Grain", "g"));
+        List<PantryItemRequest> items = List.of(new PantryItemRequest(rye.getId(), 100.0, "g", null, null),
+                new PantryItemRequest(spelt.getId(), 100.0, "g", null, null));
+        List<Long> cleared = userPantryService.upsertPantryItems(USER_ID, items).getItems().stream()
+                .map(UserPantry::getId).toList();
+        userPantryService.upsertPantryItems(USER_ID + 1, items);
+        String token = syncService.sync(USER_ID, null, 100).getToken();
+        String otherToken = syncService.sync(USER_ID + 1, null, 100).getToken();
+
+        assertThat(userPantryService.clearUserPantry(USER_ID)).isEqualTo(2);
+
+        assertThat(userPantryRepository.findByUserId(USER_ID)).isEmpty();
+        assertThat(userPantryRepository.findByUserId(USER_ID + 1)).hasSize(2);
+        SyncResult result = syncService.sync(USER_ID, token, 100);
+        assertThat(result.getDeleted().get("pantry")).containsExactlyInAnyOrderElementsOf(cleared);
+        assertThat(syncService.sync(USER_ID + 1, otherToken, 100).getDeleted().getOrDefault("pantry", List.of())).isEmpty();
+    }
+
+    private Long save(String name, int prepTime, int cookTime) {
+        Recipe recipe = new Recipe(name, null, prepTime, cookTime, 2, "Easy", "Bulk Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("Bulk Test Salt", 1.0, "g", null))));
+        recipe.setInstructions(new ArrayList<>(List.of("Season")));
+        return recipeService.saveRecipe(recipe).getId();
+    }
+
+    private int collectionRows(String table, List<Long> recipeIds) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE recipe_id IN (:ids)",
+                Map.of("ids", recipeIds), Integer.class);
+    }
+}
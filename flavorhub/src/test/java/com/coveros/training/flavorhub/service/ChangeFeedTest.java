@@ -0,0 +1,145 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.event.EntityChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeFeedTest {
+
+    private final ChangeFeed feed = new ChangeFeed(new ObjectMapper(), Duration.ofMillis(50), Duration.ofMillis(300));
+
+    private final CountDownLatch unstall = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        unstall.countDown();
+        feed.shutdown();
+    }
+
+    /**
+     * More stalled clients than a fixed sender pool would have threads must
+     * not hold up a client that is keeping up, and are dropped once their
+     * send has been stuck past the timeout
+     */
+    @Test
+    void stalledSubscribersDoNotDelayOthers() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            feed.subscribe(new StalledEmitter(), 1L, null);
+        }
+        RecordingEmitter fast = new RecordingEmitter();
+        feed.subscribe(fast, 2L, null);
+
+        for (long id = 1; id <= 3; id++) {
+            feed.onEntityChanged(new EntityChangedEvent("recipe", id, 0L, EntityChangedEvent.CREATE, null));
+        }
+
+        for (long id = 1; id <= 3; id++) {
+            assertThat(fast.nextChange()).contains("event:change").contains("\"id\":" + id);
+        }
+        assertThat(waitFor(() -> feed.getSubscriberCount() == 1)).isTrue();
+    }
+
+    @Test
+    void pantryChangesOnlyReachTheirOwner() throws Exception {
+        RecordingEmitter owner = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        feed.subscribe(owner, 1L, null);
+        feed.subscribe(other, 2L, null);
+
+        feed.onEntityChanged(new EntityChangedEvent("pantry", 10L, 0L, EntityChangedEvent.CREATE, 1L));
+        feed.onEntityChanged(new EntityChangedEvent("recipe", 20L, 0L, EntityChangedEvent.CREATE, null));
+
+        assertThat(owner.nextChange()).contains("\"id\":10");
+        assertThat(owner.nextChange()).contains("\"id\":20");
+        assertThat(other.nextChange()).contains("\"id\":20");
+    }
+
+    @Test
+    void replaysFromLastEventIdAndResetsUnknownIds() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(first, 1L, null);
+        feed.onEntityChanged(new EntityChangedEvent("recipe", 1L, 0L, EntityChangedEvent.CREATE, null));
+        feed.onEntityChanged(new EntityChangedEvent("recipe", 2L, 0L, EntityChangedEvent.CREATE, null));
+        String firstEvent = first.nextChange();
+        String lastEventId = firstEvent.substring(firstEvent.indexOf("id:") + 3, firstEvent.indexOf('\n', firstEvent.indexOf("id:")));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        feed.subscribe(resumed, 1L, lastEventId);
+        assertThat(resumed.nextChange()).contains("\"id\":2");
+
+        RecordingEmitter stale = new RecordingEmitter();
+        feed.subscribe(stale, 1L, "earlier-run-7");
+        assertThat(stale.next()).contains("event:reset");
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static String text(SseEmitter.SseEventBuilder event) {
+        return event.build().stream().map(data -> data.getData().toString()).collect(Collectors.joining());
+    }
+
+    /**
+     * A client whose socket never drains: every send blocks until the test ends
+     */
+    private class StalledEmitter extends SseEmitter {
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            try {
+                unstall.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Stalled client");
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder event) {
+            sent.add(text(event));
+        }
+
+        String next() throws InterruptedException {
+            String event = sent.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event within 5 s").isNotNull();
+            return event;
+        }
+
+        /**
+         * Next event other than a heartbeat
+         */
+        String nextChange() throws InterruptedException {
+            String event = next();
+            while (event.startsWith(":")) {
+                event = next();
+            }
+            return event;
+        }
+    }
+}
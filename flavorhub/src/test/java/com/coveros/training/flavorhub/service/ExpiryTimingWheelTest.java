@@ -0,0 +1,116 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryExpiry;
+import com.coveros.training.flavorhub.event.PantryChangedEvent;
+import com.coveros.training.flavorhub.event.PantryExpiringEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives the wheel with explicit times: every item must fire in the tick
+ * after its due time, whichever level it started on and however many times
+ * it was cascaded down to a finer level on the way
+ */
+class ExpiryTimingWheelTest {
+
+    private static final long USER_ID = 42L;
+    private static final long TICK = Duration.ofMinutes(1).toMillis();
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long DAY = Duration.ofDays(1).toMillis();
+
+    private final List<PantryExpiry> stored = new ArrayList<>();
+    private final List<Object> events = new ArrayList<>();
+    private final UserPantryRepository userPantryRepository = mock(UserPantryRepository.class);
+    private final ExpiryTimingWheel wheel = new ExpiryTimingWheel(userPantryRepository, events::add,
+            Duration.ofMillis(TICK), Duration.ZERO);
+
+    @AfterEach
+    void stopTicker() {
+        wheel.shutdown();
+    }
+
+    @Test
+    void firesEachItemInTheTickAfterItIsDueAcrossEveryLevel() {
+        long now = System.currentTimeMillis();
+        long minuteLevel = now + 30 * TICK + 10_000;
+        long hourLevel = now + 5 * HOUR + 10_000;
+        long dayLevel = now + 3 * DAY + 10_000;
+        long beyondHorizon = now + 20 * DAY + 10_000;
+        long cancelled = now + 2 * HOUR;
+        store(1L, minuteLevel);
+        store(2L, hourLevel);
+        store(3L, dayLevel);
+        store(4L, beyondHorizon);
+        store(5L, cancelled);
+        when(userPantryRepository.findExpiringBetween(any(), any())).thenAnswer(invocation -> {
+            Instant from = invocation.getArgument(0);
+            Instant to = invocation.getArgument(1);
+            return stored.stream()
+                    .filter(item -> !item.getExpiresAt().isBefore(from) && item.getExpiresAt().isBefore(to))
+                    .toList();
+        });
+
+        wheel.start();
+        wheel.shutdown(); // time is driven by advance() below, not the real ticker
+        assertThat(wheel.size()).isEqualTo(4);
+
+        wheel.onPantryChanged(PantryChangedEvent.deleted(USER_ID, 5L, 1L));
+        wheel.onPantryChanged(PantryChangedEvent.saved(item(6L, now + 2 * DAY)));
+        assertThat(wheel.size()).isEqualTo(4);
+
+        assertFiresAt(1L, minuteLevel);
+        assertFiresAt(2L, hourLevel);
+        assertFiresAt(6L, now + 2 * DAY);
+        assertFiresAt(3L, dayLevel);
+        assertFiresAt(4L, beyondHorizon);
+
+        assertThat(fired()).containsExactlyInAnyOrder(1L, 2L, 6L, 3L, 4L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    private void assertFiresAt(long itemId, long dueAt) {
+        long tickStart = dueAt - Math.floorMod(dueAt, TICK);
+        wheel.advance(tickStart);
+        assertThat(fired()).doesNotContain(itemId);
+        wheel.advance(tickStart + TICK);
+        assertThat(fired()).contains(itemId);
+    }
+
+    private Set<Long> fired() {
+        Set<Long> ids = new HashSet<>();
+        for (Object event : events) {
+            if (event instanceof PantryExpiringEvent expiring) {
+                expiring.getItemIdsByUser().values().forEach(ids::addAll);
+            }
+        }
+        return ids;
+    }
+
+    private void store(Long id, long dueAt) {
+        stored.add(new PantryExpiry(id, USER_ID, Instant.ofEpochMilli(dueAt)));
+    }
+
+    private static UserPantry item(Long id, long expiresAt) {
+        Ingredient ingredient = new Ingredient("Expiry Test Milk", "Dairy", "ml");
+        ingredient.setId(1L);
+        UserPantry item = new UserPantry(USER_ID, ingredient, 1.0, "l");
+        item.setId(id);
+        item.setExpiresAt(Instant.ofEpochMilli(expiresAt));
+        return item;
+    }
+}
@@ -0,0 +1,88 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ExportServiceTest {
+
+    private static final long USER_ID = 6301L;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void writesEveryRecipeAsOneJsonLineInIdOrder() throws Exception {
+        Recipe recipe = new Recipe("Export Test Dal", "Lentils", 10, 30, 4, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("Export Test Lentils", 200.0, "g", null))));
+        recipe.setInstructions(new ArrayList<>(List.of("Rinse", "Simmer")));
+        Long id = recipeService.saveRecipe(recipe).getId();
+
+        List<JsonNode> rows = lines(out -> exportService.exportRecipes(out));
+
+        assertThat(rows).hasSize((int) recipeRepository.count());
+        assertThat(rows).extracting(row -> row.get("id").asLong()).isSorted().doesNotHaveDuplicates();
+        JsonNode exported = rows.stream().filter(row -> row.get("id").asLong() == id).findFirst().orElseThrow();
+        assertThat(exported.get("ingredients").get(0).get("ingredientName").asText()).isEqualTo("Export Test Lentils");
+        assertThat(exported.get("instructions")).hasSize(2);
+    }
+
+    @Test
+    void exportsOnlyTheUsersPantry() throws Exception {
+        Ingredient oats = ingredientService.saveIngredient(new Ingredient("Export Test Oats", "Grain", "g"));
+        userPantryService.upsertPantryItems(USER_ID, List.of(new PantryItemRequest(oats.getId(), 500.0, "g", null, null)));
+        userPantryService.upsertPantryItems(USER_ID + 1, List.of(new PantryItemRequest(oats.getId(), 1.0, "kg", null, null)));
+
+        List<JsonNode> rows = lines(out -> exportService.exportPantry(USER_ID, out));
+
+        assertThat(rows).singleElement().satisfies(row -> {
+            assertThat(row.get("userId").asLong()).isEqualTo(USER_ID);
+            assertThat(row.get("quantity").asDouble()).isEqualTo(500.0);
+        });
+    }
+
+    private List<JsonNode> lines(Consumer<ByteArrayOutputStream> export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.accept(out);
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+}
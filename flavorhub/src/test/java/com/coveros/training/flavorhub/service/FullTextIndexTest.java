@@ -0,0 +1,103 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeContentHash;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FullTextIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final Map<Long, Recipe> catalog = new TreeMap<>();
+
+    @Test
+    void ranksWithBm25() {
+        catalog.put(1L, recipe(1L, "Lemon Tart", "Sweet pastry", 11));
+        catalog.put(2L, recipe(2L, "Fish", "Served with lemon", 12));
+        catalog.put(3L, recipe(3L, "Salad", "Lemon dressing, lemon zest and plenty of crisp green leaves", 13));
+        FullTextIndex index = load(mock(RecipeRepository.class));
+
+        // a name counts three times, and two mentions outrank one even in a longer description
+        assertThat(recipeIds(index.search(TextAnalyzer.queryTerms("lemon"), 10))).containsExactly(1L, 3L, 2L);
+        // the rare term outweighs the common one
+        assertThat(recipeIds(index.search(TextAnalyzer.queryTerms("lemon fish"), 10))).containsExactly(2L, 1L, 3L);
+        assertThat(recipeIds(index.search(TextAnalyzer.queryTerms("lemon fish"), 1))).containsExactly(2L);
+        assertThat(index.search(TextAnalyzer.queryTerms("chocolate"), 10)).isEmpty();
+    }
+
+    @Test
+    void reloadsOnlyRecipesThatChangedSinceTheSnapshot() {
+        catalog.put(1L, recipe(1L, "Lemon Tart", "Sweet pastry", 11));
+        catalog.put(2L, recipe(2L, "Fish", "Served with lemon", 12));
+        catalog.put(3L, recipe(3L, "Salad", "Green leaves", 13));
+        load(mock(RecipeRepository.class)).save();
+
+        catalog.put(2L, recipe(2L, "Stew", "Slow cooked", 22));
+        catalog.remove(3L);
+        catalog.put(4L, recipe(4L, "Fish Pie", "Baked", 14));
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        FullTextIndex reloaded = load(recipeRepository);
+
+        verify(recipeRepository).findAllById(List.of(2L, 4L));
+        assertThat(recipeIds(reloaded.search(TextAnalyzer.queryTerms("tart"), 10))).containsExactly(1L);
+        assertThat(recipeIds(reloaded.search(TextAnalyzer.queryTerms("fish"), 10))).containsExactly(4L);
+        assertThat(reloaded.search(TextAnalyzer.queryTerms("salad"), 10)).isEmpty();
+    }
+
+    @Test
+    void reindexesEverythingFromACorruptSnapshot() throws Exception {
+        catalog.put(1L, recipe(1L, "Lemon Tart", "Sweet pastry", 11));
+        Files.write(indexFile(), new byte[] {0x46, 0x54, 0x49, 0x58, 0, 0, 0, 1, 0, 0});
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+
+        FullTextIndex index = load(recipeRepository);
+
+        verify(recipeRepository).findAllById(List.of(1L));
+        assertThat(recipeIds(index.search(TextAnalyzer.queryTerms("tart"), 10))).containsExactly(1L);
+    }
+
+    private FullTextIndex load(RecipeRepository recipeRepository) {
+        when(recipeRepository.findContentHashes()).thenAnswer(invocation -> catalog.values().stream()
+                .map(recipe -> new RecipeContentHash(recipe.getId(), recipe.getContentHash()))
+                .toList());
+        when(recipeRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Recipe> recipes = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> recipes.add(catalog.get(id)));
+            return recipes;
+        });
+        FullTextIndex index = new FullTextIndex(recipeRepository, indexFile().toString());
+        index.load();
+        return index;
+    }
+
+    private Path indexFile() {
+        return directory.resolve("fulltext-index.bin");
+    }
+
+    private static List<Long> recipeIds(List<FullTextIndex.Hit> hits) {
+        return hits.stream().map(FullTextIndex.Hit::recipeId).toList();
+    }
+
+    private static Recipe recipe(Long id, String name, String description, int contentHash) {
+        Recipe recipe = new Recipe(name, description, 5, 10, 2, "Easy", "Test");
+        recipe.setId(id);
+        recipe.setContentHash(contentHash);
+        return recipe;
+    }
+}
@@ -0,0 +1,82 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class IngredientNameResolverTest {
+
+    @Autowired
+    private IngredientNameResolver ingredientNameResolver;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Test
+    void normalizesSpellingsOfTheSameIngredient() {
+        String tomato = IngredientNameResolver.normalize("tomato");
+        assertThat(IngredientNameResolver.normalize("Tomatoes (Canned)")).isEqualTo(tomato);
+        assertThat(IngredientNameResolver.normalize("TOMATOES, diced")).isEqualTo(tomato);
+        assertThat(IngredientNameResolver.normalize("Scallions")).isEqualTo(IngredientNameResolver.normalize("green onion"));
+        assertThat(IngredientNameResolver.normalize("(optional)")).isNull();
+        assertThat(IngredientNameResolver.normalize(null)).isNull();
+    }
+
+    @Test
+    void resolvesOnSaveAndBackfillsWhenTheIngredientAppears() {
+        Long recipeId = save("Resolver Test Compote", "Resolver Test Quinces (poached)");
+        assertThat(ingredientIds(recipeId)).containsOnlyNulls();
+        long versionBefore = recipeService.getRecipeById(recipeId).orElseThrow().getVersion();
+
+        Ingredient quince = ingredientService.saveIngredient(new Ingredient("Resolver Test Quince", "Fruit", "count"));
+
+        assertThat(ingredientIds(recipeId)).containsExactly(quince.getId());
+        assertThat(recipeService.getRecipeById(recipeId).orElseThrow().getVersion()).isGreaterThan(versionBefore);
+        assertThat(ingredientNameResolver.resolve("resolver test quince, sliced")).isEqualTo(quince.getId());
+        Long laterId = save("Resolver Test Tart", "RESOLVER TEST QUINCE");
+        assertThat(ingredientIds(laterId)).containsExactly(quince.getId());
+    }
+
+    @Test
+    void renamingAnIngredientUnresolvesRowsThatNoLongerMatch() {
+        Ingredient medlar = ingredientService.saveIngredient(new Ingredient("Resolver Test Medlar", "Fruit", "count"));
+        Long recipeId = save("Resolver Test Jelly", "Resolver Test Medlars");
+        assertThat(ingredientIds(recipeId)).containsExactly(medlar.getId());
+
+        medlar.setName("Resolver Test Loquat");
+        ingredientService.saveIngredient(medlar);
+
+        assertThat(ingredientIds(recipeId)).containsOnlyNulls();
+        assertThat(recipeRepository.findByIngredientId(medlar.getId())).isEmpty();
+    }
+
+    private Long save(String name, String ingredientName) {
+        Recipe recipe = new Recipe(name, null, 5, 10, 2, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient(ingredientName, 1.0, "", null))));
+        return recipeService.saveRecipe(recipe).getId();
+    }
+
+    private List<Long> ingredientIds(Long recipeId) {
+        return recipeService.getRecipesAfter(recipeId - 1, 1).get(0).getIngredients().stream()
+                .map(RecipeIngredient::getIngredientId)
+                .toList();
+    }
+}
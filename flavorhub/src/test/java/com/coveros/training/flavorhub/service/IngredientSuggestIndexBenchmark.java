@@ -0,0 +1,68 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.IngredientCount;
+import com.coveros.training.flavorhub.model.Ingredient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times one- to three-letter prefix lookups on a generated catalog of
+ * ingredients with random popularity. Not part of the normal build; run with
+ *
+ *     mvn test -Dtest=IngredientSuggestIndexBenchmark -Dbenchmark=true [-Dbenchmark.ingredients=100000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IngredientSuggestIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "black", "white", "red", "green", "smoked", "sweet", "dried", "fresh", "wild", "ground",
+            "pepper", "onion", "garlic", "basil", "salt", "sugar", "flour", "rice", "bean", "cheese",
+            "chili", "lemon", "lime", "mint", "thyme", "sage", "paprika", "cumin", "olive", "oil"};
+
+    private static final int WARMUP_LOOKUPS = 50_000;
+    private static final int LOOKUPS = 100_000;
+
+    @Test
+    void suggestLatency() {
+        int size = Integer.getInteger("benchmark.ingredients", 100_000);
+        Random random = new Random(42);
+        List<Ingredient> ingredients = new ArrayList<>();
+        List<IngredientCount> recipeCounts = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            ingredients.add(IngredientSuggestIndexTest.ingredient(id, name));
+            recipeCounts.add(new IngredientCount(id, (long) random.nextInt(1_000)));
+        }
+        long started = System.nanoTime();
+        IngredientSuggestIndex index = IngredientSuggestIndexTest.index(ingredients, recipeCounts, List.of());
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+
+        List<String> prefixes = new ArrayList<>();
+        for (String word : WORDS) {
+            for (int length = 1; length <= 3; length++) {
+                prefixes.add(word.substring(0, length));
+            }
+        }
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            index.suggest(prefixes.get(i % prefixes.size()), IngredientSuggestIndex.MAX_SUGGESTIONS);
+        }
+        long[] nanos = new long[LOOKUPS];
+        for (int i = 0; i < nanos.length; i++) {
+            String prefix = prefixes.get(random.nextInt(prefixes.size()));
+            long lookup = System.nanoTime();
+            assertThat(index.suggest(prefix, IngredientSuggestIndex.MAX_SUGGESTIONS)).isNotEmpty();
+            nanos[i] = System.nanoTime() - lookup;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%n%,d ingredients, index built in %,d ms%n", size, buildMillis);
+        System.out.printf("suggest: p50 %,d ns, p99 %,d ns, max %,d ns%n",
+                nanos[LOOKUPS / 2], nanos[LOOKUPS * 99 / 100], nanos[LOOKUPS - 1]);
+    }
+}
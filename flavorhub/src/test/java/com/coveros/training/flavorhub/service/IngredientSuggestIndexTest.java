@@ -0,0 +1,50 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.IngredientCount;
+import com.coveros.training.flavorhub.dto.IngredientSuggestion;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngredientSuggestIndexTest {
+
+    @Test
+    void ranksByPantryAndRecipeUsageOfTheIngredientId() {
+        IngredientSuggestIndex index = index(
+                List.of(ingredient(1L, "Black Pepper"), ingredient(2L, "Bell Pepper"), ingredient(3L, "Basil")),
+                List.of(new IngredientCount(2L, 3L)),
+                List.of(new IngredientCount(1L, 1L), new IngredientCount(2L, 1L)));
+
+        List<IngredientSuggestion> suggestions = index.suggest("pep", 10);
+
+        assertThat(suggestions).extracting(IngredientSuggestion::getName).containsExactly("Bell Pepper", "Black Pepper");
+        assertThat(suggestions).extracting(IngredientSuggestion::getPopularity).containsExactly(4, 1);
+    }
+
+    static IngredientSuggestIndex index(List<Ingredient> ingredients, List<IngredientCount> recipeCounts,
+                                        List<IngredientCount> pantryCounts) {
+        IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        UserPantryRepository userPantryRepository = mock(UserPantryRepository.class);
+        when(ingredientRepository.findAll()).thenReturn(ingredients);
+        when(recipeRepository.countByIngredientId()).thenReturn(recipeCounts);
+        when(userPantryRepository.countByIngredientId()).thenReturn(pantryCounts);
+        IngredientSuggestIndex index = new IngredientSuggestIndex(ingredientRepository, recipeRepository, userPantryRepository);
+        index.rebuild();
+        return index;
+    }
+
+    static Ingredient ingredient(Long id, String name) {
+        Ingredient ingredient = new Ingredient(name, "Test", "g");
+        ingredient.setId(id);
+        return ingredient;
+    }
+}
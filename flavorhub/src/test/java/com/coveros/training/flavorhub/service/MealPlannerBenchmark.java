@@ -0,0 +1,110 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.MealPlan;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Times the meal planner's branch-and-bound search on a generated catalog
+ * at several fork/join parallelism levels. Not part of the normal build;
+ * run with
+ *
+ *     mvn test -Dtest=MealPlannerBenchmark -Dbenchmark=true \
+ *         [-Dbenchmark.parallelism=1,2,4,8] \
+ *         [-Dbenchmark.recipes=300] [-Dbenchmark.size=5] [-Dbenchmark.pantry=12]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MealPlannerBenchmark {
+
+    private static final int INGREDIENTS = 150;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 5;
+    private static final long DEADLINE_MILLIS = 600_000; // let every run finish
+
+    @Test
+    void searchAtEachParallelism() {
+        int recipeCount = Integer.getInteger("benchmark.recipes", 300);
+        int planSize = Integer.getInteger("benchmark.size", 5);
+        int pantrySize = Integer.getInteger("benchmark.pantry", 12);
+        String levels = System.getProperty("benchmark.parallelism",
+                "1,2,4," + Runtime.getRuntime().availableProcessors());
+
+        Random random = new Random(7);
+        List<Recipe> recipes = new ArrayList<>();
+        for (long id = 1; id <= recipeCount; id++) {
+            Recipe recipe = new Recipe();
+            recipe.setId(id);
+            recipe.setName("Recipe " + id);
+            for (int i = 0, count = 5 + random.nextInt(6); i < count; i++) {
+                long ingredientId = 1 + random.nextInt(INGREDIENTS);
+                RecipeIngredient ingredient = new RecipeIngredient("Ingredient " + ingredientId, 1.0, "g", null);
+                ingredient.setIngredientId(ingredientId);
+                recipe.getIngredients().add(ingredient);
+            }
+            recipes.add(recipe);
+        }
+        List<Ingredient> pantry = new ArrayList<>();
+        for (long id = 1; id <= pantrySize; id++) {
+            Ingredient ingredient = new Ingredient("Ingredient " + id, "Test", "g");
+            ingredient.setId(id);
+            pantry.add(ingredient);
+        }
+
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        UserPantryService userPantryService = mock(UserPantryService.class);
+        when(recipeRepository.findAll()).thenReturn(recipes);
+        when(recipeRepository.findSummariesByIdIn(anyCollection())).thenReturn(List.of());
+        when(userPantryService.getPantryIngredients(anyLong())).thenReturn(pantry);
+        MealPlanner planner = new MealPlanner(recipeRepository, userPantryService);
+        ForkJoinPool warmup = new ForkJoinPool(1);
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            planner.plan(1L, planSize, null, null, DEADLINE_MILLIS, warmup);
+        }
+        warmup.shutdown();
+
+        System.out.printf("%n%d recipes, plans of %d, %d of %d ingredients in the pantry, %d available processors%n",
+                recipeCount, planSize, pantrySize, INGREDIENTS, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %12s %16s %8s %8s%n", "parallelism", "median ms", "plans examined", "used", "to buy");
+        Integer bestScore = null;
+        for (String level : levels.split(",")) {
+            int parallelism = Integer.parseInt(level.trim());
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                long[] millis = new long[RUNS];
+                MealPlan plan = null;
+                for (int run = 0; run < RUNS; run++) {
+                    long started = System.nanoTime();
+                    plan = planner.plan(1L, planSize, null, null, DEADLINE_MILLIS, pool);
+                    millis[run] = (System.nanoTime() - started) / 1_000_000;
+                }
+                Arrays.sort(millis);
+                assertThat(plan.isOptimal()).isTrue();
+                int score = plan.getPantryIngredientsUsed() - plan.getIngredientsToBuy().size();
+                if (bestScore == null) {
+                    bestScore = score;
+                }
+                assertThat(score).isEqualTo(bestScore);
+                System.out.printf("%-12d %12d %,16d %8d %8d%n", parallelism, millis[RUNS / 2],
+                        plan.getPlansExamined(), plan.getPantryIngredientsUsed(), plan.getIngredientsToBuy().size());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
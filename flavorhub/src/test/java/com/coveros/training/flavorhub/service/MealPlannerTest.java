@@ -0,0 +1,115 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.MealPlan;
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MealPlannerTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdown();
+    }
+
+    /**
+     * Recipe 1 uses the most pantry ingredients, so the greedy seed starts
+     * with it and reaches 5; only the search finds 2 + 3, which uses all 6
+     */
+    @Test
+    void findsAPlanTheGreedySeedMisses() {
+        MealPlanner planner = planner(
+                List.of(recipe(1L, 1, 2, 3, 4), recipe(2L, 1, 2, 5), recipe(3L, 3, 4, 6), recipe(4L, 7, 8, 9)),
+                pantry(6));
+
+        MealPlan plan = planner.plan(1L, 2, null, null, 60_000, pool);
+
+        assertThat(plan.getRecipes()).extracting(RecipeSummary::getId).containsExactlyInAnyOrder(2L, 3L);
+        assertThat(plan.getPantryIngredientsUsed()).isEqualTo(6);
+        assertThat(plan.getIngredientsToBuy()).isEmpty();
+        assertThat(plan.isOptimal()).isTrue();
+    }
+
+    @Test
+    void listsWhatThePlanNeedsToBuy() {
+        MealPlanner planner = planner(List.of(recipe(1L, 1, 12, 11), recipe(2L, 13, 14)), pantry(1));
+
+        MealPlan plan = planner.plan(1L, 1, null, null, 60_000, pool);
+
+        assertThat(plan.getRecipes()).extracting(RecipeSummary::getId).containsExactly(1L);
+        assertThat(plan.getPantryIngredientsUsed()).isEqualTo(1);
+        assertThat(plan.getIngredientsToBuy()).containsExactly("Ingredient 11", "Ingredient 12");
+    }
+
+    @Test
+    void returnsTheBestPlanSoFarWhenTheDeadlinePasses() {
+        Random random = new Random(7);
+        List<Recipe> recipes = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            int[] ingredients = new int[5 + random.nextInt(6)];
+            for (int i = 0; i < ingredients.length; i++) {
+                ingredients[i] = 1 + random.nextInt(150);
+            }
+            recipes.add(recipe(id, ingredients));
+        }
+        MealPlanner planner = planner(recipes, pantry(12));
+
+        MealPlan plan = planner.plan(1L, 5, null, null, 1, pool);
+
+        assertThat(plan.isOptimal()).isFalse();
+        assertThat(plan.getRecipes()).hasSize(5);
+        assertThat(plan.getElapsedMillis()).isLessThan(5_000);
+    }
+
+    private static MealPlanner planner(List<Recipe> recipes, List<Ingredient> pantry) {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        UserPantryService userPantryService = mock(UserPantryService.class);
+        when(recipeRepository.findAll()).thenReturn(recipes);
+        when(recipeRepository.findSummariesByIdIn(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .map(id -> new RecipeSummary(id, "Recipe " + id, null, null, null, null, null, null, null))
+                        .toList());
+        when(userPantryService.getPantryIngredients(anyLong())).thenReturn(pantry);
+        return new MealPlanner(recipeRepository, userPantryService);
+    }
+
+    private static Recipe recipe(Long id, int... ingredientIds) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setName("Recipe " + id);
+        for (int ingredientId : ingredientIds) {
+            RecipeIngredient ingredient = new RecipeIngredient("Ingredient " + ingredientId, 1.0, "g", null);
+            ingredient.setIngredientId((long) ingredientId);
+            recipe.getIngredients().add(ingredient);
+        }
+        return recipe;
+    }
+
+    private static List<Ingredient> pantry(int size) {
+        List<Ingredient> pantry = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            Ingredient ingredient = new Ingredient("Ingredient " + id, "Test", "g");
+            ingredient.setId(id);
+            pantry.add(ingredient);
+        }
+        return pantry;
+    }
+}
@@ -0,0 +1,105 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeVersion;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecipeCardRendererTest {
+
+    private final Map<Long, Long> versions = new TreeMap<>(Map.of(1L, 0L, 2L, 0L, 3L, 0L));
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final ITemplateEngine templateEngine = mock(ITemplateEngine.class);
+    private final RecipeCardRenderer renderer = new RecipeCardRenderer(recipeRepository, templateEngine);
+
+    @BeforeEach
+    void stubCatalog() {
+        when(recipeRepository.findVersionsAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int max = invocation.<Limit>getArgument(1).max();
+            return versions.entrySet().stream()
+                    .filter(entry -> entry.getKey() > afterId)
+                    .limit(max)
+                    .map(entry -> new RecipeVersion(entry.getKey(), entry.getValue()))
+                    .toList();
+        });
+        when(recipeRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Recipe> recipes = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                Recipe recipe = new Recipe();
+                recipe.setId(id);
+                recipe.setVersion(versions.get(id));
+                recipes.add(recipe);
+            });
+            return recipes;
+        });
+        when(templateEngine.process(anyString(), any(IContext.class))).thenAnswer(invocation -> {
+            Recipe recipe = (Recipe) invocation.<IContext>getArgument(1).getVariable("recipe");
+            return "[" + recipe.getId() + "v" + recipe.getVersion() + "]";
+        });
+    }
+
+    @Test
+    void reusesCardsWhileTheirVersionIsCurrent() {
+        assertThat(renderer.renderPage(0, 10).html()).isEqualTo("[1v0][2v0][3v0]");
+        clearInvocations(recipeRepository, templateEngine);
+
+        assertThat(renderer.renderPage(0, 10).html()).isEqualTo("[1v0][2v0][3v0]");
+        verify(recipeRepository, never()).findAllById(anyIterable());
+        verify(templateEngine, never()).process(anyString(), any(IContext.class));
+    }
+
+    @Test
+    void rerendersOnlyCardsWithANewerVersion() {
+        renderer.renderPage(0, 10);
+        versions.put(2L, 1L);
+        clearInvocations(recipeRepository);
+
+        assertThat(renderer.renderPage(0, 10).html()).isEqualTo("[1v0][2v1][3v0]");
+        verify(recipeRepository).findAllById(List.of(2L));
+    }
+
+    @Test
+    void dropsCardsWhenARecipeChanges() {
+        renderer.renderPage(0, 10);
+        renderer.onRecipeChanged(RecipeChangedEvent.deleted(3L));
+        versions.remove(3L);
+        renderer.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+        clearInvocations(recipeRepository);
+
+        assertThat(renderer.renderPage(0, 10).html()).isEqualTo("[1v0][2v0]");
+        verify(recipeRepository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void pagesByIdWithAContinuationPoint() {
+        RecipeCardRenderer.RenderedPage first = renderer.renderPage(0, 2);
+        assertThat(first.html()).isEqualTo("[1v0][2v0]");
+        assertThat(first.nextAfterId()).isEqualTo(2L);
+
+        RecipeCardRenderer.RenderedPage last = renderer.renderPage(first.nextAfterId(), 2);
+        assertThat(last.html()).isEqualTo("[3v0]");
+        assertThat(last.nextAfterId()).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.coveros.training.flavorhub.service.RecipeFacetIndex.CUISINE;
+import static com.coveros.training.flavorhub.service.RecipeFacetIndex.DIFFICULTY;
+import static com.coveros.training.flavorhub.service.RecipeFacetIndex.INGREDIENT;
+import static com.coveros.training.flavorhub.service.RecipeFacetIndex.TIME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecipeFacetIndexTest {
+
+    private final RecipeFacetIndex index = index(
+            recipe(1L, "Easy", "Italian", 10, ingredient("Tomato", 1L), ingredient("Basil", null)),
+            recipe(2L, "Easy", "Mexican", 25, ingredient("Tomato", 1L)),
+            recipe(3L, "Hard", "Italian", 45, ingredient("Tomato", null), ingredient("Garlic", 3L)),
+            recipe(4L, "Medium", "Italian", 20, ingredient("Garlic", 3L)));
+
+    @Test
+    void orsValuesWithinADimensionAndAndsAcrossDimensions() {
+        assertThat(ids(Map.of(CUISINE, List.of("Italian", "mexican"), DIFFICULTY, List.of("easy"))))
+                .containsExactly(1L, 2L);
+        assertThat(ids(Map.of(CUISINE, List.of("italian"), DIFFICULTY, List.of("Easy", "Hard"))))
+                .containsExactly(1L, 3L);
+        assertThat(ids(Map.of(INGREDIENT, List.of("tomato", "garlic")))).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(ids(Map.of(INGREDIENT, List.of("tomato"), CUISINE, List.of("Italian")))).containsExactly(1L, 3L);
+        assertThat(ids(Map.of(CUISINE, List.of("Mexican"), DIFFICULTY, List.of("Hard")))).isEmpty();
+    }
+
+    @Test
+    void countsEachDimensionWithEveryFilterExceptItsOwn() {
+        RecipeFacetIndex.FacetMatch match = index.search(
+                Map.of(DIFFICULTY, List.of("Easy"), CUISINE, List.of("Italian")), 10);
+
+        assertThat(match.recipeIds()).containsExactly(1L);
+        assertThat(match.facets().get(DIFFICULTY))
+                .containsOnly(entry("Easy", 1), entry("Hard", 1), entry("Medium", 1));
+        assertThat(match.facets().get(CUISINE)).containsOnly(entry("Italian", 1), entry("Mexican", 1));
+        assertThat(match.facets().get(TIME)).containsOnly(entry("0-15", 1));
+        assertThat(match.facets().get(INGREDIENT)).containsOnly(entry("Tomato", 1), entry("Basil", 1));
+    }
+
+    @Test
+    void mergesResolvedAndUnresolvedRowsOfAnIngredient() {
+        RecipeFacetIndex.FacetMatch match = index.search(Map.of(), 10);
+
+        assertThat(match.total()).isEqualTo(4);
+        assertThat(match.facets().get(INGREDIENT))
+                .containsExactly(entry("Tomato", 3), entry("Garlic", 2), entry("Basil", 1));
+        assertThat(index.matching(INGREDIENT, "tomatoes")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void matchingReturnsIdsOfOneValue() {
+        assertThat(index.matching(DIFFICULTY, "EASY")).containsExactly(1L, 2L);
+        assertThat(index.matching(CUISINE, "Thai")).isEmpty();
+    }
+
+    private List<Long> ids(Map<String, List<String>> filters) {
+        return index.search(filters, Integer.MAX_VALUE).recipeIds();
+    }
+
+    private static RecipeFacetIndex index(Recipe... recipes) {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        IngredientNameResolver ingredientNameResolver = mock(IngredientNameResolver.class);
+        when(recipeRepository.findAll()).thenReturn(List.of(recipes));
+        when(ingredientNameResolver.resolve("tomato")).thenReturn(1L);
+        when(ingredientNameResolver.resolve("tomatoes")).thenReturn(1L);
+        when(ingredientNameResolver.resolve("garlic")).thenReturn(3L);
+        RecipeFacetIndex index = new RecipeFacetIndex(recipeRepository, ingredientNameResolver);
+        index.rebuild();
+        return index;
+    }
+
+    private static Recipe recipe(Long id, String difficulty, String cuisine, int minutes,
+                                 RecipeIngredient... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setName("Recipe " + id);
+        recipe.setDifficultyLevel(difficulty);
+        recipe.setCuisineType(cuisine);
+        recipe.setPrepTime(minutes);
+        recipe.setCookTime(0);
+        recipe.getIngredients().addAll(List.of(ingredients));
+        return recipe;
+    }
+
+    private static RecipeIngredient ingredient(String name, Long ingredientId) {
+        RecipeIngredient ingredient = new RecipeIngredient(name, 1.0, "g", null);
+        ingredient.setIngredientId(ingredientId);
+        return ingredient;
+    }
+}
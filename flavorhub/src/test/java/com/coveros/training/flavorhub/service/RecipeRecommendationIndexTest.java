@@ -0,0 +1,80 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeRecommendation;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecipeRecommendationIndexTest {
+
+    private static final List<Ingredient> PANTRY = List.of(
+            ingredient(1L, "Rice"), ingredient(2L, "Onion"), ingredient(3L, "Basil"));
+
+    private final RecipeRecommendationIndex index = index(
+            recipe(1L, row("Rice", 1L), row("Onion", 2L)),
+            recipe(2L, row("Rice", 1L), row("Onion", 2L), row("Basil", 3L), row("Saffron", 4L)),
+            recipe(3L, row("Rice", 1L), row("Leek", 5L)),
+            recipe(4L, row("Beef", 6L), row("Salt", 7L)),
+            recipe(5L, row("Rice", 1L), row("Basil", null)));
+
+    @Test
+    void ranksByCoverageThenMissingIngredientsThenId() {
+        List<RecipeRecommendation> recommendations = index.recommend(PANTRY, 10);
+
+        assertThat(recommendations).extracting(RecipeRecommendation::getRecipeId).containsExactly(1L, 5L, 2L, 3L);
+        assertThat(recommendations.get(2).getMatchedIngredients()).isEqualTo(3);
+        assertThat(recommendations.get(2).getMissingIngredients()).isEqualTo(1);
+        assertThat(recommendations.get(2).getCoverage()).isEqualTo(0.75);
+        assertThat(index.recommend(PANTRY, 2)).extracting(RecipeRecommendation::getRecipeId).containsExactly(1L, 5L);
+        assertThat(index.recommend(List.of(), 10)).isEmpty();
+    }
+
+    @Test
+    void followsRecipeChanges() {
+        index.onRecipeChanged(RecipeChangedEvent.saved(recipe(3L, row("Rice", 1L), row("Onion", 2L))));
+        assertThat(index.recommend(PANTRY, 10)).extracting(RecipeRecommendation::getRecipeId)
+                .containsExactly(1L, 3L, 5L, 2L);
+
+        index.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+        index.onRecipeChanged(RecipeChangedEvent.saved(recipe(6L, row("Basil", 3L))));
+        assertThat(index.recommend(PANTRY, 10)).extracting(RecipeRecommendation::getRecipeId)
+                .containsExactly(3L, 5L, 6L, 2L);
+    }
+
+    private static RecipeRecommendationIndex index(Recipe... recipes) {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.findAll()).thenReturn(List.of(recipes));
+        RecipeRecommendationIndex index = new RecipeRecommendationIndex(recipeRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static Recipe recipe(Long id, RecipeIngredient... ingredients) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setName("Recipe " + id);
+        recipe.getIngredients().addAll(List.of(ingredients));
+        return recipe;
+    }
+
+    private static RecipeIngredient row(String name, Long ingredientId) {
+        RecipeIngredient ingredient = new RecipeIngredient(name, 1.0, "g", null);
+        ingredient.setIngredientId(ingredientId);
+        return ingredient;
+    }
+
+    private static Ingredient ingredient(Long id, String name) {
+        Ingredient ingredient = new Ingredient(name, "Test", "g");
+        ingredient.setId(id);
+        return ingredient;
+    }
+}
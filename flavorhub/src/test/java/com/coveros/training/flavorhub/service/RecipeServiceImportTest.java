@@ -0,0 +1,79 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.BulkImportResult;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class RecipeServiceImportTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    /**
+     * 120 recipes span two full chunks and a partial one; every recipe must
+     * arrive with its collections and reach the indexes, which are fed from
+     * the now-detached instances
+     */
+    @Test
+    void importsEveryChunkAndIndexesTheRecipes() {
+        Ingredient okra = ingredientService.saveIngredient(new Ingredient("Import Test Okra", "Vegetable", "g"));
+
+        BulkImportResult result = recipeService.importRecipes(recipes("Import Test Gumbo", 120));
+
+        assertThat(result.getImported()).isEqualTo(120);
+        List<Recipe> byIngredient = recipeService.getRecipesByIngredient(okra.getId());
+        assertThat(byIngredient).hasSize(120).allSatisfy(recipe -> {
+            assertThat(recipe.getIngredients()).singleElement()
+                    .extracting(RecipeIngredient::getIngredientId).isEqualTo(okra.getId());
+            assertThat(recipe.getInstructions()).containsExactly("Chop", "Simmer");
+        });
+        assertThat(recipeService.searchRecipes("Import Test Gumbo")).hasSize(120);
+        assertThat(recipeService.fullTextSearch("gumbo", 200)).hasSize(120);
+    }
+
+    /**
+     * The first chunk is already flushed when a recipe in the second fails;
+     * it must be rolled back with the rest and never reach the indexes
+     */
+    @Test
+    void failedImportLeavesNothingBehind() {
+        List<Recipe> recipes = recipes("Import Test Jambalaya", 70);
+        recipes.get(60).setName(null);
+
+        assertThatThrownBy(() -> recipeService.importRecipes(recipes)).isInstanceOf(RuntimeException.class);
+
+        assertThat(recipeRepository.findAll()).noneMatch(recipe -> recipe.getName().startsWith("Import Test Jambalaya"));
+        assertThat(recipeService.searchRecipes("Import Test Jambalaya")).isEmpty();
+    }
+
+    private static List<Recipe> recipes(String name, int count) {
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            Recipe recipe = new Recipe(name + " " + i, "Imported", 10, 20, 4, "Medium", "Creole");
+            recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("Import Test Okra", 200.0, "g", null))));
+            recipe.setInstructions(new ArrayList<>(List.of("Chop", "Simmer")));
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+}
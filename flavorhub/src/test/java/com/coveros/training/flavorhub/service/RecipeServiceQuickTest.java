@@ -0,0 +1,60 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class RecipeServiceQuickTest {
+
+    private static final String CUISINE = "Quick Test";
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Test
+    void filtersByTotalTimeQuickestFirst() {
+        Long toast = save("Quick Test Toast", 2, 3, "Easy");
+        Long salad = save("Quick Test Salad", 10, 0, "Easy");
+        Long omelette = save("Quick Test Omelette", 5, 5, "Medium");
+        save("Quick Test Roast", 20, 90, "Hard");
+
+        assertThat(ids(recipeService.getQuickRecipes(10, CUISINE, null, 10))).containsExactly(toast, salad, omelette);
+        assertThat(ids(recipeService.getQuickRecipes(10, CUISINE, "Easy", 10))).containsExactly(toast, salad);
+        assertThat(ids(recipeService.getQuickRecipes(10, CUISINE, null, 2))).containsExactly(toast, salad);
+
+        List<Recipe> anyCuisine = recipeService.getQuickRecipes(10, null, "Medium", 500);
+        assertThat(ids(anyCuisine)).contains(omelette).doesNotContain(toast, salad);
+        assertThat(anyCuisine).extracting(Recipe::getTotalTime)
+                .allSatisfy(minutes -> assertThat(minutes).isLessThanOrEqualTo(10))
+                .isSorted();
+    }
+
+    @Test
+    void keepsTotalTimeInStepWithPrepAndCookTime() {
+        Recipe porridge = recipeService.saveRecipe(new Recipe("Quick Test Porridge", null, 5, 40, 2, "Easy", CUISINE));
+        Long id = porridge.getId();
+        assertThat(ids(recipeService.getQuickRecipes(15, CUISINE, null, 500))).doesNotContain(id);
+
+        porridge.setCookTime(5);
+        recipeService.saveRecipe(porridge);
+
+        assertThat(recipeService.getRecipeById(id).orElseThrow().getTotalTime()).isEqualTo(10);
+        assertThat(ids(recipeService.getQuickRecipes(15, CUISINE, null, 500))).contains(id);
+    }
+
+    private Long save(String name, int prepTime, int cookTime, String difficulty) {
+        return recipeService.saveRecipe(new Recipe(name, null, prepTime, cookTime, 2, difficulty, CUISINE)).getId();
+    }
+
+    private static List<Long> ids(List<Recipe> recipes) {
+        return recipes.stream().map(Recipe::getId).toList();
+    }
+}
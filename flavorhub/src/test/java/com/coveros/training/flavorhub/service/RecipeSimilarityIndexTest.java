@@ -0,0 +1,71 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.SimilarRecipe;
+import com.coveros.training.flavorhub.event.RecipeChangedEvent;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecipeSimilarityIndexTest {
+
+    private final RecipeSimilarityIndex index = index(
+            recipe(1L, range(1, 10)),
+            recipe(2L, range(1, 10)),
+            recipe(3L, IntStream.concat(range(1, 9), IntStream.of(11))),
+            recipe(4L, IntStream.concat(range(1, 9), IntStream.of(11, 12))),
+            recipe(5L, range(20, 29)));
+
+    @Test
+    void ranksLshCandidatesByExactJaccardSimilarity() {
+        List<SimilarRecipe> similar = index.findSimilar(1L, 10).orElseThrow();
+
+        assertThat(similar).extracting(SimilarRecipe::getRecipeId).containsExactly(2L, 3L, 4L);
+        assertThat(similar.get(0).getSimilarity()).isEqualTo(1.0);
+        assertThat(similar.get(1).getSimilarity()).isCloseTo(9.0 / 11, within(1e-9));
+        assertThat(similar.get(2).getSimilarity()).isCloseTo(9.0 / 12, within(1e-9));
+        assertThat(index.findSimilar(1L, 1).orElseThrow()).extracting(SimilarRecipe::getRecipeId).containsExactly(2L);
+    }
+
+    @Test
+    void followsRecipeChanges() {
+        index.onRecipeChanged(RecipeChangedEvent.deleted(2L));
+        index.onRecipeChanged(RecipeChangedEvent.saved(recipe(5L, range(1, 10))));
+
+        assertThat(index.findSimilar(1L, 10).orElseThrow()).extracting(SimilarRecipe::getRecipeId)
+                .containsExactly(5L, 3L, 4L);
+        assertThat(index.findSimilar(2L, 10)).isEmpty();
+    }
+
+    private static RecipeSimilarityIndex index(Recipe... recipes) {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.findAll()).thenReturn(List.of(recipes));
+        RecipeSimilarityIndex index = new RecipeSimilarityIndex(recipeRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static IntStream range(int first, int last) {
+        return IntStream.rangeClosed(first, last);
+    }
+
+    private static Recipe recipe(Long id, IntStream ingredientIds) {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setName("Recipe " + id);
+        ingredientIds.forEach(ingredientId -> {
+            RecipeIngredient ingredient = new RecipeIngredient("Ingredient " + ingredientId, 1.0, "g", null);
+            ingredient.setIngredientId((long) ingredientId);
+            recipe.getIngredients().add(ingredient);
+        });
+        return recipe;
+    }
+}
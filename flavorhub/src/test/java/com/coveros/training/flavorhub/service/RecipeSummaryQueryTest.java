@@ -0,0 +1,95 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.RecipeSummary;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recipe listings must cost a fixed number of statements, not one or two per recipe
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class RecipeSummaryQueryTest {
+
+    private static final int RECIPES = 20;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void summariesCountIngredientsInOneStatement() {
+        long afterId = saveRecipes() - 1;
+        statistics.clear();
+
+        List<RecipeSummary> summaries = recipeService.getRecipeSummariesAfter(afterId, RECIPES);
+
+        assertThat(summaries).hasSize(RECIPES);
+        assertThat(summaries).extracting(RecipeSummary::getIngredientCount).startsWith(0, 1, 2, 0);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void fullRecipesLoadTheirCollectionsInBatches() {
+        long afterId = saveRecipes() - 1;
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        List<Recipe> recipes = recipeService.getRecipesAfter(afterId, RECIPES);
+
+        assertThat(recipes).hasSize(RECIPES);
+        assertThat(recipes.get(2).getIngredients()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3); // recipes, ingredients, instructions
+    }
+
+    /**
+     * Save recipes with 0, 1 and 2 ingredients in turn, returning the first id
+     */
+    private long saveRecipes() {
+        Long first = null;
+        for (int i = 0; i < RECIPES; i++) {
+            Recipe recipe = new Recipe("Summary Test Dish " + i, null, 5, 10, 2, "Easy", "Test");
+            List<RecipeIngredient> ingredients = new ArrayList<>();
+            for (int j = 0; j < i % 3; j++) {
+                ingredients.add(new RecipeIngredient("Summary Test Herb " + j, 1.0, "g", null));
+            }
+            recipe.setIngredients(ingredients);
+            recipe.setInstructions(new ArrayList<>(List.of("Stir")));
+            Long id = recipeService.saveRecipe(recipe).getId();
+            if (first == null) {
+                first = id;
+            }
+        }
+        return first;
+    }
+}
@@ -0,0 +1,109 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.repository.IngredientRepository;
+import com.coveros.training.flavorhub.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Writes through the services must never leave a stale entity, collection
+ * or query result in the second-level cache
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void recipeSavedThroughTheServiceIsVisibleOnTheNextFindById() {
+        Recipe recipe = new Recipe("Cache Test Soup", "First version", 5, 10, 2, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(new RecipeIngredient("Cache Test Leek", 1.0, "", null))));
+        recipe.setInstructions(new ArrayList<>(List.of("Simmer")));
+        Long id = recipeService.saveRecipe(recipe).getId();
+
+        Recipe cached = load(id);
+        assertThat(entityManagerFactory.getCache().contains(Recipe.class, id)).isTrue();
+
+        cached.setName("Cache Test Soup, Revised");
+        cached.getIngredients().add(new RecipeIngredient("Cache Test Carrot", 2.0, "", null));
+        cached.getInstructions().add("Blend");
+        recipeService.saveRecipe(cached);
+
+        Recipe reloaded = load(id);
+        assertThat(reloaded.getName()).isEqualTo("Cache Test Soup, Revised");
+        assertThat(reloaded.getIngredients()).extracting(RecipeIngredient::getIngredientName)
+                .containsExactlyInAnyOrder("Cache Test Leek", "Cache Test Carrot");
+        assertThat(reloaded.getInstructions()).containsExactly("Simmer", "Blend");
+        assertThat(reloaded.getVersion()).isEqualTo(cached.getVersion() + 1);
+    }
+
+    @Test
+    void bulkDeleteEvictsTheCachedRecipe() {
+        Long id = recipeService.saveRecipe(new Recipe("Cache Test Stew", null, 5, 10, 2, "Easy", "Test")).getId();
+        load(id);
+        assertThat(entityManagerFactory.getCache().contains(Recipe.class, id)).isTrue();
+
+        recipeService.deleteRecipes(List.of(id));
+
+        assertThat(recipeRepository.findById(id)).isEmpty();
+    }
+
+    @Test
+    void renamedIngredientIsVisibleThroughTheCachedNameQuery() {
+        Ingredient sumac = ingredientService.saveIngredient(new Ingredient("Cache Test Sumac", "Spice", "g"));
+        assertThat(ingredientRepository.findByNameIgnoreCase("cache test sumac")).isPresent();
+        assertThat(ingredientRepository.findByNameIgnoreCase("cache test sumac")).isPresent(); // from the query cache
+
+        Ingredient renamed = ingredientRepository.findById(sumac.getId()).orElseThrow();
+        renamed.setName("Cache Test Sumac Berry");
+        ingredientService.saveIngredient(renamed);
+
+        assertThat(ingredientRepository.findByNameIgnoreCase("cache test sumac")).isEmpty();
+        assertThat(ingredientRepository.findByNameIgnoreCase("cache test sumac berry"))
+                .get().extracting(Ingredient::getId).isEqualTo(sumac.getId());
+        assertThat(ingredientRepository.findById(sumac.getId()).orElseThrow().getName()).isEqualTo("Cache Test Sumac Berry");
+    }
+
+    /**
+     * Read a recipe with its collections in a transaction of its own, as a request would
+     */
+    private Recipe load(Long id) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Recipe recipe = recipeRepository.findById(id).orElseThrow();
+            Hibernate.initialize(recipe.getIngredients());
+            Hibernate.initialize(recipe.getInstructions());
+            return recipe;
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.SyncResult;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class SyncServiceTest {
+
+    private static final long USER_ID = 5150L;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Test
+    void deltaIsPagedUntilNothingIsLeft() {
+        String token = syncService.sync(USER_ID, null, 3).getToken();
+        List<String> written = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            written.add(ingredientService.saveIngredient(new Ingredient("Sync Test Spice " + i, "Spice", "g")).getName());
+        }
+
+        List<String> received = new ArrayList<>();
+        SyncResult result;
+        int pages = 0;
+        do {
+            result = syncService.sync(USER_ID, token, 3);
+            assertThat(result.isSnapshot()).isFalse();
+            assertThat(result.getIngredients()).hasSizeLessThanOrEqualTo(3);
+            result.getIngredients().forEach(ingredient -> received.add(ingredient.getName()));
+            token = result.getToken();
+            pages++;
+        } while (result.isMore() && pages < 10);
+
+        assertThat(result.isMore()).isFalse();
+        assertThat(pages).isEqualTo(3);
+        assertThat(received).containsExactlyElementsOf(written);
+    }
+
+    /**
+     * A bulk delete shares one change sequence number, so its tombstones
+     * cannot be split across pages and come back together
+     */
+    @Test
+    void bulkDeleteLargerThanAPageComesBackWhole() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(recipeService.saveRecipe(new Recipe("Sync Test Stew " + i, null, 5, 10, 2, "Easy", "Test")).getId());
+        }
+        String token = syncService.sync(USER_ID, null, 2).getToken();
+
+        recipeService.deleteRecipes(ids);
+        SyncResult result = syncService.sync(USER_ID, token, 2);
+
+        assertThat(result.getDeleted().get("recipe")).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(result.isMore()).isFalse();
+    }
+}
@@ -0,0 +1,122 @@
+package com.coveros.training.flavorhub.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares TrigramIndex with the LIKE '%term%' query name search used
+ * before it, on an in-memory H2 table of generated names. Not part of the
+ * normal build; run with
+ *
+ *     mvn test -Dtest=TrigramIndexBenchmark -Dbenchmark=true [-Dbenchmark.sizes=100000,1000000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrigramIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "chicken", "beef", "pork", "tofu", "salmon", "shrimp", "lentil", "bean", "rice", "noodle",
+            "smoked", "spicy", "sweet", "sour", "roasted", "grilled", "braised", "crispy", "creamy", "fresh",
+            "tomato", "garlic", "ginger", "lemon", "basil", "paprika", "curry", "pesto", "honey", "mustard",
+            "soup", "stew", "salad", "pie", "tacos", "pasta", "bowl", "skillet", "bake", "wrap"};
+
+    // Common word, two-word phrase, rare number, no match, and a term too short for a trigram
+    private static final String[] TERMS = {"chicken", "smoked pap", "4242", "zzq", "ch"};
+
+    private static final int RUNS = 5;
+
+    // What findByNameContainingIgnoreCase generated
+    private static final String LIKE_QUERY = "SELECT id FROM names WHERE UPPER(name) LIKE UPPER(?) ESCAPE '\\'";
+
+    @Test
+    void trigramIndexAgainstLike() throws SQLException {
+        for (String size : System.getProperty("benchmark.sizes", "100000,1000000").split(",")) {
+            run(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private void run(int size) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:trigram" + size)) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE names (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL)");
+            }
+            Random random = new Random(size);
+            TrigramIndex index = new TrigramIndex();
+            long indexNanos = 0;
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO names VALUES (?, ?)")) {
+                for (long id = 1; id <= size; id++) {
+                    String name = capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + WORDS[random.nextInt(WORDS.length)]
+                            + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+                    insert.setLong(1, id);
+                    insert.setString(2, name);
+                    insert.addBatch();
+                    if (id % 10_000 == 0) {
+                        insert.executeBatch();
+                    }
+                    long started = System.nanoTime();
+                    index.put(id, name);
+                    indexNanos += System.nanoTime() - started;
+                }
+                insert.executeBatch();
+            }
+
+            System.out.printf("%n%,d names, trigram index built in %,d ms%n", size, indexNanos / 1_000_000);
+            System.out.printf("%-12s %9s %14s %14s %9s%n", "term", "matches", "LIKE median", "trigram median", "speedup");
+            try (PreparedStatement like = connection.prepareStatement(LIKE_QUERY)) {
+                for (String term : TERMS) {
+                    List<Long> expected = like(like, term);
+                    assertThat(index.search(term)).isEqualTo(expected);
+
+                    long[] likeNanos = new long[RUNS];
+                    long[] trigramNanos = new long[RUNS];
+                    for (int run = 0; run < RUNS; run++) {
+                        long started = System.nanoTime();
+                        like(like, term);
+                        likeNanos[run] = System.nanoTime() - started;
+                        started = System.nanoTime();
+                        index.search(term);
+                        trigramNanos[run] = System.nanoTime() - started;
+                    }
+                    long likeMedian = median(likeNanos);
+                    long trigramMedian = median(trigramNanos);
+                    System.out.printf("%-12s %,9d %11.2f ms %11.3f ms %8.0fx%n", "\"" + term + "\"", expected.size(),
+                            likeMedian / 1e6, trigramMedian / 1e6, (double) likeMedian / Math.max(1, trigramMedian));
+                }
+            }
+        }
+    }
+
+    private static List<Long> like(PreparedStatement like, String term) throws SQLException {
+        like.setString(1, "%" + term + "%");
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = like.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures cook throughput and latency when every thread deducts from the
+ * same pantry rows, so the conditional UPDATE serializes them on the row
+ * locks. Not part of the normal build; run with
+ *
+ *     mvn test -Dtest=UserPantryServiceCookBenchmark -Dbenchmark=true \
+ *         [-Dbenchmark.threads=1,4,16] [-Dbenchmark.cooks=2000]
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "logging.level.com.coveros.training.flavorhub=INFO")
+@ActiveProfiles("test")
+class UserPantryServiceCookBenchmark {
+
+    private static final long USER_ID = 8080L;
+    private static final int WARMUP_COOKS = 500;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    @Test
+    void cooksAgainstTheSameRows() throws Exception {
+        int cooks = Integer.getInteger("benchmark.cooks", 2000);
+        String levels = System.getProperty("benchmark.threads", "1,4,16");
+
+        Ingredient egg = ingredientService.saveIngredient(new Ingredient("Benchmark Egg", "Dairy", "count"));
+        Ingredient flour = ingredientService.saveIngredient(new Ingredient("Benchmark Flour", "Baking", "g"));
+        Recipe recipe = new Recipe();
+        recipe.setName("Benchmark Pancakes");
+        recipe.setIngredients(new ArrayList<>(List.of(
+                new RecipeIngredient("Benchmark Egg", 1.0, "", null),
+                new RecipeIngredient("Benchmark Flour", 100.0, "g", null))));
+        Long recipeId = recipeService.saveRecipe(recipe).getId();
+        int total = WARMUP_COOKS + cooks * levels.split(",").length;
+        Long eggsId = userPantryService.addPantryItem(new UserPantry(USER_ID, egg, (double) total, "")).getId();
+        userPantryService.addPantryItem(new UserPantry(USER_ID, flour, total * 100.0, "g"));
+
+        for (int i = 0; i < WARMUP_COOKS; i++) {
+            userPantryService.cookRecipe(USER_ID, recipeId);
+        }
+
+        System.out.printf("%n%d cooks per level, %d available processors%n", cooks, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %12s %10s %10s%n", "threads", "cooks/s", "p50 ms", "p99 ms");
+        for (String level : levels.split(",")) {
+            int threads = Integer.parseInt(level.trim());
+            long[] nanos = new long[cooks];
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int first = t;
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = first; i < cooks; i += threads) {
+                            long started = System.nanoTime();
+                            userPantryService.cookRecipe(USER_ID, recipeId);
+                            nanos[i] = System.nanoTime() - started;
+                        }
+                        return null;
+                    }));
+                }
+                long started = System.nanoTime();
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                long elapsed = System.nanoTime() - started;
+                Arrays.sort(nanos);
+                System.out.printf("%-8d %12.0f %10.2f %10.2f%n", threads, cooks * 1e9 / elapsed,
+                        nanos[cooks / 2] / 1e6, nanos[cooks * 99 / 100] / 1e6);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        assertThat(userPantryRepository.findById(eggsId).orElseThrow().getQuantity()).isZero();
+    }
+}
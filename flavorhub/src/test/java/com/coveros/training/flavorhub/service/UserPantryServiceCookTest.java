@@ -0,0 +1,119 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserPantryServiceCookTest {
+
+    private static final long USER_ID = 4242L;
+    private static final int THREADS = 16;
+    private static final int COOKS_IN_STOCK = 5;
+    private static final double GRAMS_PER_COOK = 2.0;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    /**
+     * THREADS cooks race for a pantry holding enough for COOKS_IN_STOCK: the
+     * conditional UPDATE must let exactly that many through and leave nothing
+     */
+    @Test
+    void concurrentCooksNeverOverdrawThePantry() throws Exception {
+        Ingredient saffron = ingredientService.saveIngredient(new Ingredient("Concurrency Test Saffron", "Spice", "g"));
+        Recipe recipe = new Recipe();
+        recipe.setName("Saffron Rice For The Race");
+        recipe.setIngredients(new ArrayList<>(List.of(
+                new RecipeIngredient("Concurrency Test Saffron", GRAMS_PER_COOK, "g", null))));
+        recipe = recipeService.saveRecipe(recipe);
+        assertThat(recipe.getIngredients().get(0).getIngredientId()).isEqualTo(saffron.getId());
+
+        UserPantry stock = new UserPantry();
+        stock.setUserId(USER_ID);
+        stock.setIngredient(saffron);
+        stock.setQuantity(GRAMS_PER_COOK * COOKS_IN_STOCK);
+        stock.setUnit("g");
+        Long itemId = userPantryService.addPantryItem(stock).getId();
+
+        Long recipeId = recipe.getId();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> cooks = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                cooks.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return userPantryService.cookRecipe(USER_ID, recipeId).isPresent();
+                    } catch (InsufficientPantryException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> cook : cooks) {
+                if (cook.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(COOKS_IN_STOCK);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        UserPantry left = userPantryRepository.findById(itemId).orElseThrow();
+        assertThat(left.getQuantity()).isZero();
+        assertThat(left.getBaseQuantity()).isZero();
+    }
+
+    /**
+     * "2 eggs" and "50 g egg" cannot both come out of one pantry row, however much it holds
+     */
+    @Test
+    void recipeMeasuringAnIngredientInTwoBaseUnitsIsRejected() {
+        Ingredient egg = ingredientService.saveIngredient(new Ingredient("Concurrency Test Quail Egg", "Dairy", "count"));
+        Recipe recipe = new Recipe();
+        recipe.setName("Quail Egg Two Ways");
+        recipe.setIngredients(new ArrayList<>(List.of(
+                new RecipeIngredient("Concurrency Test Quail Egg", 2.0, "", null),
+                new RecipeIngredient("Concurrency Test Quail Egg", 50.0, "g", null))));
+        Long recipeId = recipeService.saveRecipe(recipe).getId();
+        Long itemId = userPantryService.addPantryItem(new UserPantry(USER_ID, egg, 100.0, "")).getId();
+
+        assertThatThrownBy(() -> userPantryService.cookRecipe(USER_ID, recipeId))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(userPantryRepository.findById(itemId).orElseThrow().getQuantity()).isEqualTo(100.0);
+    }
+}
@@ -0,0 +1,56 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserPantryServiceIsolationTest {
+
+    private static final long ALICE = 6201L;
+    private static final long BOB = 6202L;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    @Test
+    void oneUserCannotSeeOrChangeAnotherUsersPantry() {
+        Ingredient rice = ingredientService.saveIngredient(new Ingredient("Isolation Test Rice", "Grain", "g"));
+        UserPantry item = new UserPantry(ALICE, rice, 500.0, "g");
+        item.setExpiresAt(Instant.now().plus(1, ChronoUnit.DAYS));
+        Long aliceItemId = userPantryService.addPantryItem(item).getId();
+
+        assertThat(userPantryService.getUserPantryAfter(BOB, 0, 100)).isEmpty();
+        assertThat(userPantryService.getExpiringItems(BOB, 7)).isEmpty();
+
+        userPantryService.deletePantryItem(BOB, aliceItemId);
+        userPantryService.upsertPantryItems(BOB, List.of(new PantryItemRequest(rice.getId(), 100.0, "g", null, null)));
+        userPantryService.clearUserPantry(BOB);
+
+        assertThat(userPantryRepository.findById(aliceItemId)).get()
+                .satisfies(row -> assertThat(row.getUserId()).isEqualTo(ALICE))
+                .extracting(UserPantry::getQuantity).isEqualTo(500.0);
+        assertThat(userPantryService.getUserPantryAfter(ALICE, 0, 100))
+                .extracting(UserPantry::getId).containsExactly(aliceItemId);
+        assertThat(userPantryService.getExpiringItems(ALICE, 7))
+                .extracting(UserPantry::getId).containsExactly(aliceItemId);
+    }
+}
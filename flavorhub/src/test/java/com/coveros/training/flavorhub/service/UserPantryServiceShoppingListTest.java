@@ -0,0 +1,62 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.dto.ShoppingListItem;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.Recipe;
+import com.coveros.training.flavorhub.model.RecipeIngredient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserPantryServiceShoppingListTest {
+
+    private static final long USER_ID = 6401L;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Test
+    void sumsEveryRecipeInBaseUnitsLessWhatThePantryHolds() {
+        Ingredient flour = ingredientService.saveIngredient(new Ingredient("Shopping Test Flour", "Baking", "g"));
+        Ingredient sugar = ingredientService.saveIngredient(new Ingredient("Shopping Test Sugar", "Baking", "g"));
+        Long pancakes = save("Shopping Test Pancakes",
+                new RecipeIngredient("Shopping Test Flour", 500.0, "g", null),
+                new RecipeIngredient("Shopping Test Milk", 0.5, "l", null),
+                new RecipeIngredient("Shopping Test Sugar", 20.0, "g", null),
+                new RecipeIngredient("Shopping Test Salt", null, null, "to taste"));
+        Long bread = save("Shopping Test Bread",
+                new RecipeIngredient("shopping test flour", 0.25, "kg", null),
+                new RecipeIngredient("Shopping Test Milk", 250.0, "ml", null));
+        userPantryService.upsertPantryItems(USER_ID, List.of(
+                new PantryItemRequest(flour.getId(), 1.0, "kg", null, null),
+                new PantryItemRequest(sugar.getId(), 100.0, "g", null, null)));
+
+        List<ShoppingListItem> list = userPantryService.buildShoppingList(USER_ID, List.of(pancakes, pancakes, bread));
+
+        assertThat(list).containsExactly(
+                new ShoppingListItem("Shopping Test Flour", 250.0, "g"),
+                new ShoppingListItem("Shopping Test Milk", 1250.0, "ml"),
+                new ShoppingListItem("Shopping Test Salt", null, "count"));
+    }
+
+    private Long save(String name, RecipeIngredient... ingredients) {
+        Recipe recipe = new Recipe(name, null, 5, 10, 2, "Easy", "Test");
+        recipe.setIngredients(new ArrayList<>(List.of(ingredients)));
+        return recipeService.saveRecipe(recipe).getId();
+    }
+}
@@ -0,0 +1,83 @@
+package com.coveros.training.flavorhub.service;
+
+import com.coveros.training.flavorhub.dto.PantryBatchResult;
+import com.coveros.training.flavorhub.dto.PantryItemRequest;
+import com.coveros.training.flavorhub.model.Ingredient;
+import com.coveros.training.flavorhub.model.UserPantry;
+import com.coveros.training.flavorhub.repository.UserPantryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class UserPantryServiceUpsertTest {
+
+    private static final long USER_ID = 6161L;
+
+    @Autowired
+    private UserPantryService userPantryService;
+
+    @Autowired
+    private IngredientService ingredientService;
+
+    @Autowired
+    private UserPantryRepository userPantryRepository;
+
+    @Test
+    void mergesIntoExistingRowsAndInsertsTheRest() {
+        Ingredient flour = ingredientService.saveIngredient(new Ingredient("Upsert Test Flour", "Baking", "g"));
+        Ingredient milk = ingredientService.saveIngredient(new Ingredient("Upsert Test Milk", "Dairy", "ml"));
+        Instant soon = Instant.parse("2030-01-02T00:00:00Z");
+        Instant later = Instant.parse("2030-02-01T00:00:00Z");
+        UserPantry existing = new UserPantry(USER_ID, flour, 500.0, "g");
+        existing.setExpiresAt(later);
+        userPantryService.addPantryItem(existing);
+
+        PantryBatchResult result = userPantryService.upsertPantryItems(USER_ID, List.of(
+                new PantryItemRequest(flour.getId(), 1.0, "kg", null, soon),
+                new PantryItemRequest(milk.getId(), 1.0, "l", "fridge", null),
+                new PantryItemRequest(milk.getId(), 250.0, "ml", null, null)));
+
+        assertThat(result.getInserted()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        List<UserPantry> rows = userPantryRepository.findWithIngredientByUserIdAndIngredientIdIn(
+                USER_ID, List.of(flour.getId(), milk.getId()));
+        assertThat(rows).hasSize(2);
+        UserPantry flourRow = rows.stream().filter(row -> row.getIngredient().getId().equals(flour.getId())).findFirst().orElseThrow();
+        assertThat(flourRow.getQuantity()).isEqualTo(1500.0);
+        assertThat(flourRow.getUnit()).isEqualTo("g");
+        assertThat(flourRow.getExpiresAt()).isEqualTo(soon);
+        UserPantry milkRow = rows.stream().filter(row -> row.getIngredient().getId().equals(milk.getId())).findFirst().orElseThrow();
+        assertThat(milkRow.getQuantity()).isEqualTo(1.25);
+        assertThat(milkRow.getBaseQuantity()).isEqualTo(1250.0);
+        assertThat(milkRow.getNotes()).isEqualTo("fridge");
+    }
+
+    @Test
+    void rejectsUnknownIngredientsAndIncompatibleUnits() {
+        Ingredient salt = ingredientService.saveIngredient(new Ingredient("Upsert Test Salt", "Spice", "g"));
+        userPantryService.addPantryItem(new UserPantry(USER_ID, salt, 100.0, "g"));
+
+        assertThatThrownBy(() -> userPantryService.upsertPantryItems(USER_ID, List.of(
+                new PantryItemRequest(Long.MAX_VALUE, 1.0, "g", null, null))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThatThrownBy(() -> userPantryService.upsertPantryItems(USER_ID, List.of(
+                new PantryItemRequest(salt.getId(), 1.0, "cup", null, null))))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+
+        assertThat(userPantryRepository.findWithIngredientByUserIdAndIngredientIdIn(USER_ID, List.of(salt.getId())))
+                .singleElement().extracting(UserPantry::getQuantity).isEqualTo(100.0);
+    }
+}